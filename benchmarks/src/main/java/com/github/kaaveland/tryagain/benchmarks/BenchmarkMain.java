@@ -0,0 +1,20 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs JMH with the GC profiler enabled, so every benchmark reports its allocation rate (gc.alloc.rate.norm).
+ *
+ * Accepts the same arguments as org.openjdk.jmh.Main, e.g. a regex selecting the benchmarks to run.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
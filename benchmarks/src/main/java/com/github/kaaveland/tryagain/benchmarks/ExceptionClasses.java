@@ -0,0 +1,50 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exception classes from the JDK that are unrelated to the exceptions matched in ExceptionMatcherBenchmark, used to
+ * grow the number of classes a matcher has to consider.
+ */
+class ExceptionClasses {
+    private static final List<Class<? extends Exception>> CLASSES = Arrays.asList(
+            ArithmeticException.class, ArrayIndexOutOfBoundsException.class, ArrayStoreException.class,
+            ClassCastException.class, ClassNotFoundException.class, CloneNotSupportedException.class,
+            EnumConstantNotPresentException.class, IllegalAccessException.class, IllegalArgumentException.class,
+            IllegalMonitorStateException.class, IllegalThreadStateException.class,
+            IndexOutOfBoundsException.class, InstantiationException.class, InterruptedException.class,
+            NegativeArraySizeException.class, NoSuchFieldException.class, NoSuchMethodException.class,
+            NullPointerException.class, NumberFormatException.class, ReflectiveOperationException.class,
+            SecurityException.class, StringIndexOutOfBoundsException.class, TypeNotPresentException.class,
+            UnsupportedOperationException.class,
+            java.util.ConcurrentModificationException.class, java.util.EmptyStackException.class,
+            java.util.InputMismatchException.class, java.util.MissingResourceException.class,
+            java.util.NoSuchElementException.class, java.util.IllformedLocaleException.class,
+            java.util.TooManyListenersException.class,
+            java.util.concurrent.BrokenBarrierException.class, java.util.concurrent.CancellationException.class,
+            java.util.concurrent.CompletionException.class, java.util.concurrent.ExecutionException.class,
+            java.util.concurrent.RejectedExecutionException.class, java.util.concurrent.TimeoutException.class,
+            java.text.ParseException.class, java.net.URISyntaxException.class,
+            java.sql.SQLException.class, java.sql.SQLWarning.class, java.sql.BatchUpdateException.class,
+            java.sql.SQLDataException.class, java.sql.SQLTimeoutException.class,
+            java.sql.SQLTransientException.class, java.sql.SQLNonTransientException.class,
+            java.sql.SQLRecoverableException.class, java.sql.SQLSyntaxErrorException.class,
+            java.sql.SQLFeatureNotSupportedException.class, java.sql.SQLIntegrityConstraintViolationException.class,
+            java.sql.SQLTransactionRollbackException.class, java.sql.SQLInvalidAuthorizationSpecException.class,
+            java.sql.SQLNonTransientConnectionException.class, java.sql.SQLTransientConnectionException.class,
+            java.sql.SQLClientInfoException.class,
+            java.security.GeneralSecurityException.class, java.security.NoSuchAlgorithmException.class,
+            java.security.InvalidKeyException.class, java.security.KeyStoreException.class,
+            java.security.SignatureException.class, java.security.DigestException.class,
+            java.security.InvalidParameterException.class, java.security.UnrecoverableKeyException.class,
+            java.util.zip.DataFormatException.class, java.lang.invoke.WrongMethodTypeException.class,
+            java.nio.BufferOverflowException.class, java.nio.BufferUnderflowException.class,
+            java.nio.ReadOnlyBufferException.class, java.nio.InvalidMarkException.class,
+            java.time.DateTimeException.class, java.io.UncheckedIOException.class
+    );
+
+    static List<Class<? extends Exception>> first(int count) {
+        return CLASSES.subList(0, count);
+    }
+}
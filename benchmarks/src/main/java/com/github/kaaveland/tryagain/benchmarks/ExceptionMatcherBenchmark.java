@@ -0,0 +1,84 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import com.github.kaaveland.tryagain.api.ExceptionMatcher;
+import com.github.kaaveland.tryagain.impl.CausedBy;
+import com.github.kaaveland.tryagain.impl.ExceptionIn;
+import com.github.kaaveland.tryagain.impl.InstanceOf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ExceptionIn and InstanceOf as the number of registered exception classes grows.
+ *
+ * The registered classes are unrelated exception classes from the JDK, followed by IOException. The matching exception
+ * is a SocketTimeoutException, which InstanceOf finds at the end of the list and ExceptionIn does not match at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionMatcherBenchmark {
+    @Param({"1", "4", "16", "64"})
+    public int registeredClasses;
+
+    private final Exception matching = new SocketTimeoutException();
+    private final Exception exact = new IOException();
+    private final Exception unmatched = new IllegalStateException();
+    private final Exception wrapped = new RuntimeException(new IllegalStateException(matching));
+
+    private ExceptionMatcher exceptionIn;
+    private ExceptionMatcher instanceOf;
+    private ExceptionMatcher causedBy;
+
+    @Setup
+    public void setUp() {
+        List<Class<? extends Exception>> classes = new ArrayList<>(ExceptionClasses.first(registeredClasses - 1));
+        classes.add(IOException.class);
+        exceptionIn = new ExceptionIn(new HashSet<>(classes));
+        instanceOf = new InstanceOf(classes);
+        causedBy = new CausedBy(classes);
+    }
+
+    @Benchmark
+    public boolean exceptionInExact() {
+        return exceptionIn.retry(exact);
+    }
+
+    @Benchmark
+    public boolean exceptionInUnmatched() {
+        return exceptionIn.retry(unmatched);
+    }
+
+    @Benchmark
+    public boolean instanceOfSubclass() {
+        return instanceOf.retry(matching);
+    }
+
+    @Benchmark
+    public boolean instanceOfUnmatched() {
+        return instanceOf.retry(unmatched);
+    }
+
+    @Benchmark
+    public boolean causedByWrapped() {
+        return causedBy.retry(wrapped);
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import com.github.kaaveland.tryagain.impl.JfrRetryListener;
+import com.github.kaaveland.tryagain.impl.RetryMetrics;
+import com.github.kaaveland.tryagain.impl.RetryRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the bundled listeners cost for every retry. None of them should allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerBenchmark {
+    private final IOException exception = new IOException();
+    private final RetryMetrics metrics = new RetryMetrics("benchmark");
+    private final RetryRecorder recorder = new RetryRecorder(1024);
+    // No recording is running, so its events are disabled
+    private final JfrRetryListener jfr = new JfrRetryListener("benchmark");
+
+    @Benchmark
+    public void retryMetrics() {
+        metrics.onRetry(exception, 1, 10);
+    }
+
+    @Benchmark
+    public void retryRecorder() {
+        recorder.onRetry(exception, 1, 10);
+    }
+
+    @Benchmark
+    public void jfrDisabled() {
+        jfr.onRetry(exception, 1, 10);
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+import com.github.kaaveland.tryagain.api.TryAgain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calling an interface through TryAgain.proxy with wrapping the call in a Retriable by hand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyBenchmark {
+    public interface Users {
+        String fetch(String id) throws IOException;
+    }
+
+    private final Retrier retrier = TryAgain.on(IOException.class).maxAttempts(3).withDelay(10);
+    private final String id = "1";
+
+    private final Users target = new Users() {
+        @Override
+        public String fetch(final String id) {
+            return id;
+        }
+    };
+
+    private final Users handWritten = new Users() {
+        @Override
+        public String fetch(final String id) throws IOException {
+            try {
+                return retrier.execute(new Retriable<String>() {
+                    @Override
+                    public String execute(final int attempt) throws Exception {
+                        return target.fetch(id);
+                    }
+                });
+            } catch (IOException | RuntimeException failure) {
+                throw failure;
+            } catch (Exception failure) {
+                throw new IllegalStateException(failure);
+            }
+        }
+    };
+
+    private final Users proxy = TryAgain.proxy(Users.class, target, retrier);
+
+    @Benchmark
+    public String handWritten() throws Exception {
+        return handWritten.fetch(id);
+    }
+
+    @Benchmark
+    public String proxy() throws Exception {
+        return proxy.fetch(id);
+    }
+}
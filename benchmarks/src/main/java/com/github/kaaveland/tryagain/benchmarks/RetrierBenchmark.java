@@ -0,0 +1,85 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
+import com.github.kaaveland.tryagain.api.Retrier;
+import com.github.kaaveland.tryagain.api.TryAgain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what tryagain costs on the path every call takes: the first attempt succeeds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetrierBenchmark {
+    private final Retrier retrier = TryAgain.on(IOException.class).maxAttempts(3).withDelay(10);
+
+    private final Retriable<String> succeed = new Retriable<String>() {
+        @Override
+        public String execute(final int attempt) throws Exception {
+            return "Result";
+        }
+    };
+
+    private final RetriableWithoutResult succeedWithoutResult = new RetriableWithoutResult() {
+        @Override
+        public void execute(final int attempt) throws Exception {
+        }
+    };
+
+    @Benchmark
+    public String baseline() throws Exception {
+        return succeed.execute(1);
+    }
+
+    @Benchmark
+    public String execute() throws Exception {
+        return retrier.execute(succeed);
+    }
+
+    @Benchmark
+    public void executeWithoutResult() throws Exception {
+        retrier.execute(succeedWithoutResult);
+    }
+
+    @Benchmark
+    public String wrapExceptions() {
+        return retrier.wrapExceptions().execute(succeed);
+    }
+
+    @Benchmark
+    public String bypassExceptionChecking() {
+        return retrier.bypassExceptionChecking().execute(succeed);
+    }
+
+    @Benchmark
+    public Retriable<Void> tryAgainFrom() {
+        return TryAgain.from(succeedWithoutResult);
+    }
+
+    @Benchmark
+    public String reconfigureUnchanged() throws Exception {
+        return retrier.maxAttempts(3).withDelay(10).execute(succeed);
+    }
+
+    @Benchmark
+    public void configureAndExecute(Blackhole blackhole) throws Exception {
+        blackhole.consume(TryAgain.on(IOException.class).maxAttempts(3).withDelay(10).execute(succeed));
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.kaaveland.tryagain.benchmarks;
+
+import com.github.kaaveland.tryagain.api.Cancellable;
+import com.github.kaaveland.tryagain.impl.HashedWheelScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steady state of retries in backoff while very many other delays are pending, as when every call to a
+ * service that is down waits in backoff. Each operation schedules an attempt timeout and a short delay, and when the
+ * delay runs out it cancels the timeout, like an attempt that completes.
+ *
+ * At most WINDOW operations are in flight, so the benchmark threads wait for the thread that runs the schedulers' tasks
+ * whenever it falls behind, and the time per operation includes its work: the ticker of the wheel, which runs the
+ * tasks itself, and the single thread of the ScheduledThreadPoolExecutor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DELAY = 10;
+    private static final int WINDOW = 100000;
+    private static final Runnable NOTHING = () -> { };
+
+    @Param({"1000", "1000000"})
+    public int pending;
+
+    private final Semaphore scheduledExecutorWindow = new Semaphore(WINDOW);
+    private final Semaphore wheelWindow = new Semaphore(WINDOW);
+    private ScheduledThreadPoolExecutor scheduledExecutor;
+    private HashedWheelScheduler wheel;
+
+    @Setup
+    public void setUp() {
+        scheduledExecutor = new ScheduledThreadPoolExecutor(1);
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        wheel = new HashedWheelScheduler(1, 512, Runnable::run);
+        for (int i = 0; i < pending; i++) {
+            // Spread over the hour, so the timers are not all in the same slot or at the same end of the heap
+            long delay = HOUR + i % 3600000;
+            scheduledExecutor.schedule(NOTHING, delay, TimeUnit.MILLISECONDS);
+            wheel.schedule(NOTHING, delay);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        wheel.close();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void scheduledThreadPoolExecutor() throws InterruptedException {
+        scheduledExecutorWindow.acquire();
+        final Future<?> timeout = scheduledExecutor.schedule(NOTHING, HOUR, TimeUnit.MILLISECONDS);
+        scheduledExecutor.schedule(() -> {
+            timeout.cancel(false);
+            scheduledExecutorWindow.release();
+        }, DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public void hashedWheel() throws InterruptedException {
+        wheelWindow.acquire();
+        final Cancellable timeout = wheel.schedule(NOTHING, HOUR);
+        wheel.schedule(() -> {
+            timeout.cancel();
+            wheelWindow.release();
+        }, DELAY);
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.kaaveland.tryagain.api;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Something that might fail asynchronously, either by throwing or by completing its stage exceptionally.
+ * Instanciate this to run non-blocking code with Retrier.executeAsync.
+ * @param <T>
+ */
+public interface AsyncRetriable<T> {
+    /**
+     * @param attempt set to 1 for the first attempt, goes up to maxAttempts.
+     * @return a stage that completes with a T, or exceptionally if the attempt failed.
+     * @throws Exception
+     */
+    public CompletionStage<T> execute(int attempt) throws Exception;
+}
@@ -0,0 +1,17 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Describes the attempt a ContextualRetriable is asked to make.
+ */
+public interface AttemptContext {
+    /**
+     * @return 1 for the first attempt, goes up to maxAttempts.
+     */
+    public int attempt();
+
+    /**
+     * @return milliseconds left before this attempt times out or the deadline passes, Long.MAX_VALUE if there is no
+     * limit. Pass this on to socket or query timeouts.
+     */
+    public long remainingMillis();
+}
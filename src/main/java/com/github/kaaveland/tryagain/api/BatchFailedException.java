@@ -0,0 +1,34 @@
+package com.github.kaaveland.tryagain.api;
+
+import java.util.Map;
+
+/**
+ * Thrown by Retrier.executeBatch when some items in the batch could not be completed. Holds the results of the items
+ * that did succeed along with the last exception for each item that failed. The cause is the first of these, or null if
+ * there are none.
+ */
+public class BatchFailedException extends RuntimeException {
+    private final Map<?, ?> results;
+    private final Map<?, Exception> failures;
+
+    public BatchFailedException(final Map<?, ?> results, final Map<?, Exception> failures) {
+        super(failures.size() + " items in batch failed",
+                failures.isEmpty() ? null : failures.values().iterator().next());
+        this.results = results;
+        this.failures = failures;
+    }
+
+    /**
+     * @return The results of the items that succeeded, by item.
+     */
+    public Map<?, ?> results() {
+        return results;
+    }
+
+    /**
+     * @return The last exception for each item that failed, by item.
+     */
+    public Map<?, Exception> failures() {
+        return failures;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Receives the outcome for each item passed to a BatchRetriable. It is not threadsafe, and should only be used
+ * until BatchRetriable.execute returns.
+ * @param <I> The type of the items
+ * @param <O> The type of the result for each item
+ */
+public interface BatchOutcome<I, O> {
+    /**
+     * Report that item succeeded with result.
+     */
+    public void succeeded(I item, O result);
+
+    /**
+     * Report that item failed with exception. The item is attempted again if the Retrier would retry exception.
+     */
+    public void failed(I item, Exception exception);
+}
@@ -0,0 +1,21 @@
+package com.github.kaaveland.tryagain.api;
+
+import java.util.Collection;
+
+/**
+ * An operation on many items at once, such as a bulk write, that may fail for some of the items and succeed for the
+ * rest. Only the items that failed are passed to the next attempt.
+ * @param <I> The type of the items
+ * @param <O> The type of the result for each item
+ */
+public interface BatchRetriable<I, O> {
+    /**
+     * Attempt the operation on items, reporting the outcome for each item to outcome. Items that are not reported
+     * as failed are considered to have succeeded. Throwing an exception fails all items that were not reported.
+     * @param items The items that have not yet succeeded.
+     * @param outcome Where to report the outcome for each item.
+     * @param attempt The number of the attempt, counting from 1.
+     * @throws Exception
+     */
+    public void execute(Collection<I> items, BatchOutcome<I, O> outcome, int attempt) throws Exception;
+}
@@ -0,0 +1,13 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * A task waiting in a Scheduler, so that it can be dropped once it is no longer needed, e.g. the timeout of an
+ * attempt that finished in time.
+ */
+public interface Cancellable {
+    /**
+     * Make sure the task does not run, unless it already has started.
+     * @return true if the task was cancelled by this call.
+     */
+    public boolean cancel();
+}
@@ -0,0 +1,33 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Keeps track of how attempts to invoke a system go, and stops Retrier from calling it while it appears to be down.
+ *
+ * Attempts that fail with an exception the ExceptionMatcher of the Retrier would retry are reported as failures,
+ * all other outcomes are reported as successes.
+ */
+public interface CircuitBreaker {
+    /**
+     * Called by Retrier before the first attempt and before every retry.
+     * @return true if the system may be invoked, false if the circuit is open.
+     */
+    public boolean tryAcquirePermission();
+
+    /**
+     * Called by Retrier when an attempt succeeded, or failed with an exception that is not retried.
+     */
+    public void onSuccess();
+
+    /**
+     * Called by Retrier when an attempt failed with an exception that is retried.
+     */
+    public void onFailure();
+
+    /**
+     * Called by Retrier when it got permission but made no attempt, e.g. because the retry budget, the concurrency
+     * limiter or a cancellation stopped it, so that a trial attempt of a half open circuit can be handed out again.
+     * Does nothing by default.
+     */
+    public default void releasePermission() {
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Thrown by Retrier instead of invoking a Retriable when its CircuitBreaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    public CircuitBreakerOpenException() {
+        super("Circuit breaker is open");
+    }
+}
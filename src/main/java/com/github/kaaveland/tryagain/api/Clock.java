@@ -0,0 +1,19 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Where Retrier reads the time and waits out delays. Replace it with a virtual clock to test or simulate retry timing
+ * without waiting for real.
+ */
+public interface Clock {
+    /**
+     * @return The current time in nanoseconds, only meaningful compared to other values from the same Clock.
+     */
+    public long nanoTime();
+
+    /**
+     * Block the calling thread for millis milliseconds.
+     * @param millis
+     * @throws InterruptedException
+     */
+    public void sleep(long millis) throws InterruptedException;
+}
@@ -0,0 +1,26 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Limits how many attempts, including retries, may be in flight at the same time, so that callers fail fast instead
+ * of piling on a system that is slowing down. A ConcurrencyLimiter may be shared between any number of Retriers.
+ */
+public interface ConcurrencyLimiter {
+    /**
+     * Called by Retrier before each attempt to invoke a Retriable.
+     * @return true if the attempt may be made, false to reject it.
+     */
+    public boolean tryAcquire();
+
+    /**
+     * Called by Retrier when an attempt that was let through succeeded, or failed with an exception that should not
+     * be retried.
+     * @param latencyNanos How long the attempt took.
+     */
+    public void onSuccess(long latencyNanos);
+
+    /**
+     * Called by Retrier when an attempt that was let through failed with an exception that should be retried.
+     * @param latencyNanos How long the attempt took.
+     */
+    public void onFailure(long latencyNanos);
+}
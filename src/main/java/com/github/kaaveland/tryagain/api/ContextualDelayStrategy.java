@@ -0,0 +1,24 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * A DelayStrategy that is also told which exception the last attempt failed with and how long the Retrier has been
+ * running, e.g. to honor a retry-after hint from a server.
+ */
+public interface ContextualDelayStrategy extends DelayStrategy {
+    /**
+     * Calculate the amount of milliseconds to wait before attempting to do a new invocation.
+     * @param attempt 1 if this is the first attempt, increases by 1 for every subsequent attempt.
+     * @param exception The exception the attempt failed with, or null if it returned a result that should be retried.
+     * @param elapsedMillis Milliseconds since the first attempt started.
+     * @return the amount of millis to wait.
+     */
+    public long delay(int attempt, Exception exception, long elapsedMillis);
+
+    /**
+     * Calculate the delay without knowing the exception or elapsed time.
+     */
+    @Override
+    public default long delay(int attempt) {
+        return delay(attempt, null, 0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * A Retriable that wants to know more about the attempt it is making than its number, e.g. how much time it has left.
+ * @param <T>
+ */
+public interface ContextualRetriable<T> {
+    /**
+     * @param context describes this attempt.
+     * @return a T
+     * @throws Exception
+     */
+    public T execute(AttemptContext context) throws Exception;
+}
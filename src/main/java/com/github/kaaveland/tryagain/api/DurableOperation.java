@@ -0,0 +1,16 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * A side effect that a DurableRetryQueue keeps retrying across restarts, e.g. delivering a webhook. It gets the
+ * descriptor it was submitted with, which should hold everything needed to perform it, such as a URL and a body.
+ *
+ * Operations may run more than once after a crash, so they should be idempotent.
+ */
+public interface DurableOperation {
+    /**
+     * @param descriptor the bytes that were submitted to the queue.
+     * @param attempt set to 1 for the first attempt, goes up to maxAttempts, counting attempts made before restarts.
+     * @throws Exception
+     */
+    public void execute(byte[] descriptor, int attempt) throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Used by Retrier to decide whether to retry after an attempt returned a result, e.g. a response with status 503 or
+ * an empty read from a replica that is lagging behind.
+ * @param <T> The type of the results
+ */
+public interface ResultMatcher<T> {
+    /**
+     * @param result What the attempt returned.
+     * @return true if the attempt should be retried, false to return result.
+     */
+    public boolean retry(T result);
+}
@@ -0,0 +1,25 @@
+package com.github.kaaveland.tryagain.api;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A stream of elements that can be opened again from where it failed, e.g. a paged API or a cursor into a log.
+ * @param <T> The type of the elements
+ * @param <R> The type of the token to resume from, such as an offset or a page cursor
+ */
+public interface ResumableSource<T, R> {
+    /**
+     * Open the stream, starting after the element resumeToken was taken from.
+     * @param resumeToken The token of the last element that was delivered, or null to start from the beginning.
+     * @param attempt The number of the attempt since the stream last made progress, counting from 1.
+     * @return A publisher of the remaining elements.
+     * @throws Exception
+     */
+    public Flow.Publisher<T> open(R resumeToken, int attempt) throws Exception;
+
+    /**
+     * @param element An element that has been delivered.
+     * @return The token to pass to open to resume after element.
+     */
+    public R resumeToken(T element);
+}
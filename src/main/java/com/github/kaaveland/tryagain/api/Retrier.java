@@ -1,16 +1,103 @@
 package com.github.kaaveland.tryagain.api;
 
+import com.github.kaaveland.tryagain.impl.AttemptPool;
+import com.github.kaaveland.tryagain.impl.Bulkhead;
 import com.github.kaaveland.tryagain.impl.BypassExceptionChecking;
+import com.github.kaaveland.tryagain.impl.CappedExponentialBackoffStrategy;
+import com.github.kaaveland.tryagain.impl.CompositeRetryListener;
+import com.github.kaaveland.tryagain.impl.DecorrelatedJitterStrategy;
+import com.github.kaaveland.tryagain.impl.EqualJitterStrategy;
 import com.github.kaaveland.tryagain.impl.ExponentialBackoffStrategy;
+import com.github.kaaveland.tryagain.impl.FullJitterStrategy;
+import com.github.kaaveland.tryagain.impl.RetryAfterDelayStrategy;
+import com.github.kaaveland.tryagain.impl.RetryingPublisher;
+import com.github.kaaveland.tryagain.impl.ScheduledExecutorScheduler;
+import com.github.kaaveland.tryagain.impl.SingleFlight;
+import com.github.kaaveland.tryagain.impl.StaleCache;
+import com.github.kaaveland.tryagain.impl.SystemClock;
 import com.github.kaaveland.tryagain.impl.StaticDelayStrategy;
 import com.github.kaaveland.tryagain.impl.WrapExceptions;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 /**
  * Retrier ties together all the classes that are used in tryagain to put retries around code.
  *
  * It is an immutable object, the methods used to reconfigure it return a new instance.
  */
 public class Retrier {
+    // AsyncRetriables run on the scheduler unless executeOn is used, blocking Retriables run on AttemptPool
+    private static final Executor RUN_ON_SCHEDULER = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+    private static final long GIVE_UP = -1;
+    private static final long REJECTED = Long.MIN_VALUE;
+    private static final RetryBudget UNLIMITED = new RetryBudget() {
+        @Override
+        public void recordAttempt() {
+        }
+
+        @Override
+        public boolean tryRetry() {
+            return true;
+        }
+    };
+    private static final CircuitBreaker ALWAYS_CLOSED = new CircuitBreaker() {
+        @Override
+        public boolean tryAcquirePermission() {
+            return true;
+        }
+
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onFailure() {
+        }
+    };
+    private static final RetryListener SILENT = new RetryListener() {
+    };
+    private static final ConcurrencyLimiter NO_LIMIT = new ConcurrencyLimiter() {
+        @Override
+        public boolean tryAcquire() {
+            return true;
+        }
+
+        @Override
+        public void onSuccess(final long latencyNanos) {
+        }
+
+        @Override
+        public void onFailure(final long latencyNanos) {
+        }
+    };
+
     /**
      * The max amounts of attempts to invoke a Retriable before giving up.
      */
@@ -23,6 +110,62 @@ public class Retrier {
      * The exceptionMatcher decides whether to retry on a certain exception or to rethrow it.
      */
     public final ExceptionMatcher exceptionMatcher;
+    /**
+     * The scheduler waits out the delays between the attempts made by executeAsync. It also runs the timeouts of
+     * attempts, unless it is the default, which has a timer thread of its own for them.
+     */
+    public final Scheduler scheduler;
+    /**
+     * The executor runs the attempts made by executeAsync once the scheduler has waited out their delay. Unless
+     * executeOn is used, blocking Retriables run on AttemptPool.shared() and AsyncRetriables on the scheduler.
+     */
+    public final Executor executor;
+    /**
+     * The retryBudget is consulted before every retry and may be shared between Retriers to limit retries overall.
+     */
+    public final RetryBudget retryBudget;
+    /**
+     * The circuitBreaker is asked before every attempt and stops Retrier from invoking a system that appears down.
+     */
+    public final CircuitBreaker circuitBreaker;
+    /**
+     * Milliseconds to wait for an attempt before starting the next one in parallel, or 0 to never hedge.
+     */
+    public final long hedgeDelay;
+    /**
+     * Milliseconds a single attempt may run before it is interrupted and fails with TimeoutException, or 0 for no
+     * limit.
+     */
+    public final long attemptTimeout;
+    /**
+     * Milliseconds a call to execute may take in total, including delays, or 0 for no limit.
+     */
+    public final long deadline;
+    /**
+     * The listener is told about every attempt, retry and outcome, e.g. to collect metrics.
+     */
+    public final RetryListener listener;
+    /**
+     * The concurrencyLimiter decides whether an attempt may be made while others are in flight.
+     */
+    public final ConcurrencyLimiter concurrencyLimiter;
+    /**
+     * Whether the exceptions of earlier attempts are added as suppressed to the exception that ends retrying.
+     */
+    public final boolean suppressEarlierFailures;
+    /**
+     * Whether to throw RetriesExhaustedException when giving up on an exception that should be retried.
+     */
+    public final boolean throwRetriesExhausted;
+    /**
+     * The clock is where time is read and delays are waited out when executing on the calling thread.
+     */
+    public final Clock clock;
+    // delayStrategy, if it wants to know the exception and elapsed time
+    private final ContextualDelayStrategy contextualDelayStrategy;
+    // Created on first use, and shared by every caller after that
+    private WrapExceptions wrapExceptions;
+    private BypassExceptionChecking bypassExceptionChecking;
 
     /**
      * A default Retrier that will invoke a retriable only once and use no delay between invocations.
@@ -44,9 +187,32 @@ public class Retrier {
      * @param delayStrategy The delay strategy decides how much time to delay between subsequent attempts to invoke a Retriable.
      */
     public Retrier(ExceptionMatcher exceptionMatcher, int maxAttempts, DelayStrategy delayStrategy) {
+        this(exceptionMatcher, maxAttempts, delayStrategy, ScheduledExecutorScheduler.shared(), RUN_ON_SCHEDULER,
+                UNLIMITED, ALWAYS_CLOSED, 0, 0, 0, SILENT, NO_LIMIT, false, false, SystemClock.INSTANCE);
+    }
+
+    private Retrier(ExceptionMatcher exceptionMatcher, int maxAttempts, DelayStrategy delayStrategy,
+                    Scheduler scheduler, Executor executor, RetryBudget retryBudget,
+                    CircuitBreaker circuitBreaker, long hedgeDelay, long attemptTimeout, long deadline,
+                    RetryListener listener, ConcurrencyLimiter concurrencyLimiter, boolean suppressEarlierFailures,
+                    boolean throwRetriesExhausted, Clock clock) {
         this.exceptionMatcher = exceptionMatcher;
         this.maxAttempts = maxAttempts;
         this.delayStrategy = delayStrategy;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.retryBudget = retryBudget;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgeDelay = hedgeDelay;
+        this.attemptTimeout = attemptTimeout;
+        this.deadline = deadline;
+        this.listener = listener;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.suppressEarlierFailures = suppressEarlierFailures;
+        this.throwRetriesExhausted = throwRetriesExhausted;
+        this.clock = clock;
+        this.contextualDelayStrategy = delayStrategy instanceof ContextualDelayStrategy
+                ? (ContextualDelayStrategy) delayStrategy : null;
     }
 
     /**
@@ -54,7 +220,12 @@ public class Retrier {
      * @return A new Retrier with a different value for maxAttempts.
      */
     public Retrier maxAttempts(int maxAttempts) {
-        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy);
+        if (maxAttempts == this.maxAttempts) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
     }
 
     /**
@@ -63,7 +234,10 @@ public class Retrier {
      * @return A new Retrier with a constant delay between retries.
      */
     public Retrier withDelay(long delay) {
-        return new Retrier(exceptionMatcher, maxAttempts, new StaticDelayStrategy(delay));
+        if (delayStrategy instanceof StaticDelayStrategy && delayStrategy.delay(1) == delay) {
+            return this;
+        }
+        return withDelayStrategy(new StaticDelayStrategy(delay));
     }
 
     /**
@@ -72,35 +246,375 @@ public class Retrier {
      * @return A new Retrier with an increasing delay between attempts.
      */
     public Retrier exponentialBackoff(int firstDelay) {
-        return new Retrier(exceptionMatcher, maxAttempts, new ExponentialBackoffStrategy(firstDelay));
+        return withDelayStrategy(new ExponentialBackoffStrategy(firstDelay));
+    }
+
+    /**
+     * Use an increasing delay between retries that stops growing at cap.
+     * @param base milliseconds to delay after the first failed attempt.
+     * @param multiplier factor to grow the delay by for every subsequent attempt.
+     * @param cap the maximum amount of milliseconds to delay.
+     * @return A new Retrier with a capped, increasing delay between attempts.
+     */
+    public Retrier cappedExponentialBackoff(long base, double multiplier, long cap) {
+        return withDelayStrategy(new CappedExponentialBackoffStrategy(base, multiplier, cap));
+    }
+
+    /**
+     * Use a random delay between 0 and a capped exponential backoff, so that clients failing together retry apart.
+     * @param base upper bound for the delay after the first failed attempt, doubles for every subsequent attempt.
+     * @param cap the maximum amount of milliseconds to delay.
+     * @return A new Retrier with full jitter between attempts.
+     */
+    public Retrier fullJitter(long base, long cap) {
+        return withDelayStrategy(new FullJitterStrategy(base, cap));
+    }
+
+    /**
+     * Use half of a capped exponential backoff plus a random delay of up to the other half.
+     * @param base the backoff after the first failed attempt, doubles for every subsequent attempt.
+     * @param cap the maximum amount of milliseconds to delay.
+     * @return A new Retrier with equal jitter between attempts.
+     */
+    public Retrier equalJitter(long base, long cap) {
+        return withDelayStrategy(new EqualJitterStrategy(base, cap));
+    }
+
+    /**
+     * Use a random delay between base and three times the previous delay.
+     * @param base the smallest delay in milliseconds.
+     * @param cap the maximum amount of milliseconds to delay.
+     * @return A new Retrier with decorrelated jitter between attempts.
+     */
+    public Retrier decorrelatedJitter(long base, long cap) {
+        return withDelayStrategy(new DecorrelatedJitterStrategy(base, cap));
+    }
+
+    /**
+     * Wait as long as the exception asks for when it, or one of its causes, implements RetryAfter. Exceptions without
+     * a hint are delayed by the current delay strategy.
+     * @param maxDelay the longest delay to accept from a hint, in milliseconds.
+     * @return A copy of this Retrier that honors retry-after hints.
+     */
+    public Retrier honorRetryAfter(long maxDelay) {
+        return withDelayStrategy(new RetryAfterDelayStrategy(delayStrategy, maxDelay));
     }
 
     /**
      * Enable a custom delay strategy to calculate delays after attempts.
      *
-     * DelayStrategies have the attempt number passed in as their argument.
+     * DelayStrategies have the attempt number passed in as their argument. A ContextualDelayStrategy is also passed
+     * the exception the attempt failed with and the milliseconds elapsed since the first attempt.
      *
      * @param delayStrategy
      * @return A copy of this Retrier with a new delayStrategy.
      */
     public Retrier withDelayStrategy(DelayStrategy delayStrategy) {
-        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy);
+        if (delayStrategy == this.delayStrategy) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Use a custom scheduler for executeAsync.
+     * @param scheduler
+     * @return A copy of this Retrier that schedules asynchronous attempts on scheduler.
+     */
+    public Retrier withScheduler(Scheduler scheduler) {
+        if (scheduler == this.scheduler) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Run the attempts made by executeAsync on executor instead of on AttemptPool.shared() for blocking Retriables,
+     * and on the threads of the scheduler for AsyncRetriables.
+     *
+     * Delays are still waited out by the scheduler, so no thread is held between attempts. Passing
+     * Executors.newVirtualThreadPerTaskExecutor() runs every attempt on its own virtual thread.
+     *
+     * @param executor
+     * @return A copy of this Retrier that runs asynchronous attempts on executor.
+     */
+    public Retrier executeOn(Executor executor) {
+        if (executor == this.executor) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Schedule asynchronous attempts on a (typically shared) ScheduledExecutorService.
+     *
+     * Blocking Retriables passed to executeAsync never run on the threads of executor, only delays and timeouts do.
+     *
+     * @param executor
+     * @return A copy of this Retrier that schedules asynchronous attempts on executor.
+     */
+    public Retrier withScheduler(ScheduledExecutorService executor) {
+        return withScheduler(new ScheduledExecutorScheduler(executor));
+    }
+
+    /**
+     * Read the time from, and wait out delays on, clock instead of the system clock.
+     *
+     * To test or simulate retry timing without waiting, pass the same VirtualClock to withClock and withScheduler.
+     *
+     * @param clock
+     * @return A copy of this Retrier that uses clock.
+     */
+    public Retrier withClock(Clock clock) {
+        if (clock == this.clock) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Consult retryBudget before every retry, and give up by rethrowing the exception when it is exhausted.
+     *
+     * Share the same RetryBudget between Retriers to keep retries across all of them in check.
+     *
+     * @param retryBudget
+     * @return A copy of this Retrier that only retries within retryBudget.
+     */
+    public Retrier withRetryBudget(RetryBudget retryBudget) {
+        if (retryBudget == this.retryBudget) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Stop invoking Retriables while circuitBreaker is open.
+     *
+     * Calls made while the circuit is open fail right away with CircuitBreakerOpenException. If the circuit opens
+     * during retries, the last exception is rethrown without waiting out the delay. Exceptions the exceptionMatcher
+     * retries are reported to circuitBreaker as failures, anything else as success.
+     *
+     * @param circuitBreaker
+     * @return A copy of this Retrier guarded by circuitBreaker.
+     */
+    public Retrier withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        if (circuitBreaker == this.circuitBreaker) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Hedge blocking Retriables: if an attempt has not finished after hedgeDelay millis, start the next attempt in
+     * parallel with it, and use whichever succeeds first. The attempts that lose are cancelled and interrupted.
+     *
+     * Hedged attempts count towards maxAttempts, so hedging only suits idempotent operations. Failed attempts are
+     * retried as usual. Attempts run on the executor given with executeOn, or on AttemptPool.shared(), and never on
+     * the scheduler, which only starts the hedges.
+     *
+     * @param hedgeDelay milliseconds to wait for an attempt before starting another one.
+     * @return A copy of this Retrier that hedges blocking Retriables.
+     */
+    public Retrier hedgeAfter(long hedgeDelay) {
+        if (hedgeDelay == this.hedgeDelay) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Interrupt attempts that run for longer than attemptTimeout, and fail them with TimeoutException.
+     *
+     * The timed out attempt is retried if the exceptionMatcher matches TimeoutException. Attempts run on the calling
+     * thread as usual, and the interrupt is cleared before the next attempt or before returning. Timeouts are
+     * cancelled when the attempt finishes, and run on a timer thread of their own unless withScheduler is used.
+     *
+     * @param attemptTimeout milliseconds a single attempt may run.
+     * @return A copy of this Retrier with a timeout on each attempt.
+     */
+    public Retrier withAttemptTimeout(long attemptTimeout) {
+        if (attemptTimeout == this.attemptTimeout) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Limit how long a call to execute may take in total, including all attempts and delays.
+     *
+     * Attempts are timed out when the deadline passes, and Retrier gives up instead of delaying past the deadline.
+     * Use executeWithContext to find out how much time an attempt has left.
+     *
+     * @param deadline milliseconds a call to execute may take.
+     * @return A copy of this Retrier with an overall deadline.
+     */
+    public Retrier withDeadline(long deadline) {
+        if (deadline == this.deadline) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Tell listener about every attempt, retry and outcome. Listeners added earlier are still told, first.
+     * @param listener
+     * @return A copy of this Retrier that also reports to listener.
+     */
+    public Retrier withListener(RetryListener listener) {
+        RetryListener listeners = this.listener == SILENT
+                ? listener : new CompositeRetryListener(this.listener, listener);
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listeners, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Ask concurrencyLimiter before every attempt, including retries, whether it may be made.
+     *
+     * Attempts the limiter rejects are not made, and the call fails with RejectedExecutionException right away. The
+     * rejection is not retried, and neither the listener nor the circuitBreaker hear about an attempt. Exceptions the
+     * exceptionMatcher retries are reported to concurrencyLimiter as failures, anything else as success.
+     *
+     * @param concurrencyLimiter
+     * @return A copy of this Retrier with attempts limited by concurrencyLimiter.
+     */
+    public Retrier withConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        if (concurrencyLimiter == this.concurrencyLimiter) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * Add the exceptions of earlier attempts as suppressed exceptions to the exception that ends retrying, instead of
+     * dropping them. Applies to execute and executeAsync without hedging.
+     * @return A copy of this Retrier that keeps the exceptions of earlier attempts.
+     */
+    public Retrier suppressEarlierFailures() {
+        if (suppressEarlierFailures) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                true, throwRetriesExhausted, clock);
+    }
+
+    /**
+     * When giving up on an exception that should have been retried, throw a RetriesExhaustedException with the
+     * exception as its cause, instead of the exception itself. It tells how many attempts were made and how long was
+     * spent delaying between them, and has no stack trace of its own. Applies to execute and executeAsync without
+     * hedging.
+     * @return A copy of this Retrier that throws RetriesExhaustedException when it gives up.
+     */
+    public Retrier throwRetriesExhausted() {
+        if (throwRetriesExhausted) {
+            return this;
+        }
+        return new Retrier(exceptionMatcher, maxAttempts, delayStrategy, scheduler, executor, retryBudget,
+                circuitBreaker, hedgeDelay, attemptTimeout, deadline, listener, concurrencyLimiter,
+                suppressEarlierFailures, true, clock);
+    }
+
+    /**
+     * Limit the attempts, including retries, that may run at the same time to maxConcurrent. Up to maxWaiting callers
+     * wait up to maxWaitMillis for an attempt to finish, others fail right away with RejectedExecutionException.
+     *
+     * Permits are only held during attempts, never while waiting out a delay. The bulkhead is shared by every Retrier
+     * created from the one returned, and replaces any concurrencyLimiter set before.
+     *
+     * @param maxConcurrent
+     * @param maxWaiting
+     * @param maxWaitMillis
+     * @return A copy of this Retrier with attempts limited by a new Bulkhead.
+     */
+    public Retrier withBulkhead(int maxConcurrent, int maxWaiting, long maxWaitMillis) {
+        return withConcurrencyLimiter(new Bulkhead(maxConcurrent, maxWaiting, maxWaitMillis));
+    }
+
+    /**
+     * Share executions between concurrent calls with the same key. Keep the returned SingleFlight in a field, calls
+     * only share executions through the same instance.
+     * @param <K> The type of the keys
+     * @return A new SingleFlight executing operations with this Retrier.
+     */
+    public <K> SingleFlight<K> singleFlight() {
+        return new SingleFlight<>(this);
+    }
+
+    /**
+     * Serve the last successful result for a key when this Retrier can not produce a new one. Keep the returned
+     * StaleCache in a field, results are only remembered by the same instance. Use the StaleCache constructor to set
+     * a latency budget or refresh results in the background.
+     * @param maxSize the most keys to remember results for.
+     * @param ttlMillis how long a result may be served after it was produced.
+     * @param <K> The type of the keys
+     * @param <V> The type of the results
+     * @return A new StaleCache executing operations with this Retrier.
+     */
+    public <K, V> StaleCache<K, V> staleCache(int maxSize, long ttlMillis) {
+        return new StaleCache<>(this, maxSize, ttlMillis);
+    }
+
+    /**
+     * Stream the elements of source, opening it again from the last delivered element when it fails.
+     *
+     * Delays are scheduled on the scheduler, and demand from the subscriber is passed on to each subscription to
+     * the source. The attempt number starts over whenever an element is delivered, so maxAttempts limits the attempts
+     * in a row that make no progress.
+     *
+     * @param source
+     * @param <T> The type of the elements
+     * @param <R> The type of the token to resume from
+     * @return A RetryingPublisher that opens source once for each subscriber.
+     */
+    public <T, R> RetryingPublisher<T, R> executePublisher(ResumableSource<T, R> source) {
+        return new RetryingPublisher<>(this, source);
     }
 
     /**
      * Wrap all exceptions for Retriables in WrappedException.
-     * @return A new WrapExceptions delegating invocations of Retriable to this Retrier and wrapping exceptions.
+     * @return A WrapExceptions delegating invocations of Retriable to this Retrier and wrapping exceptions, created
+     * once per Retrier.
      */
     public WrapExceptions wrapExceptions() {
-        return new WrapExceptions(this);
+        WrapExceptions wrapExceptions = this.wrapExceptions;
+        if (wrapExceptions == null) {
+            // Racy, but WrapExceptions is immutable, so at worst a few threads create their own
+            this.wrapExceptions = wrapExceptions = new WrapExceptions(this);
+        }
+        return wrapExceptions;
     }
 
     /**
      * Rethrow all exceptions without having to have throws-declarations.
-     * @return A BypassExceptionChecking delegating invocations of Retriable to this Retrier.
+     * @return A BypassExceptionChecking delegating invocations of Retriable to this Retrier, created once per Retrier.
      */
     public BypassExceptionChecking bypassExceptionChecking() {
-        return new BypassExceptionChecking(this);
+        BypassExceptionChecking bypassExceptionChecking = this.bypassExceptionChecking;
+        if (bypassExceptionChecking == null) {
+            this.bypassExceptionChecking = bypassExceptionChecking = new BypassExceptionChecking(this);
+        }
+        return bypassExceptionChecking;
     }
 
     /**
@@ -109,7 +623,11 @@ public class Retrier {
      * @throws Exception
      */
     public void execute(RetriableWithoutResult operation) throws Exception {
-        execute(TryAgain.from(operation));
+        if (hedgeDelay > 0) {
+            execute(TryAgain.from(operation));
+        } else {
+            executeBlocking(null, operation, null);
+        }
     }
 
     /**
@@ -120,21 +638,905 @@ public class Retrier {
      * @throws Exception
      */
     public <T> T execute(Retriable<T> operation) throws Exception {
-        for (int attempt = 1; attempt < maxAttempts; attempt++) {
+        if (hedgeDelay > 0) {
+            return await(executeHedged(operation));
+        }
+        return executeBlocking(operation, null, null);
+    }
+
+    /**
+     * Execute Retriable up to maxAttempt times, delaying specified time between each attempt. Attempts that return a
+     * result that resultMatcher retries are retried like attempts that fail with an exception, without an exception
+     * having to be created.
+     *
+     * Hedging is not used when a resultMatcher is given.
+     *
+     * @param operation
+     * @param resultMatcher decides which results to retry.
+     * @param <T> The type of the Retriable
+     * @return The first result that should not be retried, or the last result if the Retrier gives up.
+     * @throws Exception
+     */
+    public <T> T execute(Retriable<T> operation, ResultMatcher<? super T> resultMatcher) throws Exception {
+        return executeBlocking(operation, null, resultMatcher);
+    }
+
+    /**
+     * Execute ContextualRetriable up to maxAttempt times, delaying specified time between each attempt, and retrying
+     * results that resultMatcher retries.
+     * @param operation
+     * @param resultMatcher decides which results to retry.
+     * @param <T> The type of the ContextualRetriable
+     * @return The first result that should not be retried, or the last result if the Retrier gives up.
+     * @throws Exception
+     */
+    public <T> T executeWithContext(ContextualRetriable<T> operation, ResultMatcher<? super T> resultMatcher)
+            throws Exception {
+        return execute(new Contextual<>(operation), resultMatcher);
+    }
+
+    /**
+     * Runs either operation or withoutResult on the calling thread, so that RetriableWithoutResult does not need to be
+     * adapted to a Retriable. Results are checked with resultMatcher unless it is null.
+     */
+    private <T> T executeBlocking(Retriable<T> operation, RetriableWithoutResult withoutResult,
+                                  ResultMatcher<? super T> resultMatcher) throws Exception {
+        long started = started();
+        beforeFirstAttempt(started);
+        long totalDelay = 0;
+        List<Exception> earlierFailures = null;
+        for (int attempt = 1; ; attempt++) {
+            long acquired = acquire();
+            if (acquired == REJECTED) {
+                circuitBreaker.releasePermission();
+                RejectedExecutionException rejected = rejected(earlierFailures);
+                listener.onGiveUp(rejected, attempt - 1, elapsed(started));
+                throw rejected;
+            }
+            listener.onAttempt(attempt);
+            long timeout = attemptTimeout(started);
+            AttemptTimer timer = startTimer(timeout);
+            T result = null;
             try {
-                return operation.execute(attempt);
+                if (operation != null) {
+                    result = operation.execute(attempt);
+                } else {
+                    withoutResult.execute(attempt);
+                }
             } catch (Exception exception) {
-                if (!exceptionMatcher.retry(exception)) {
+                exception = timedOut(timer, attempt, timeout, exception);
+                release(acquired, exception);
+                long delay = retryDelay(exception, attempt, attempt, started);
+                if (delay == GIVE_UP) {
+                    exception = (Exception) endedRetrying(exception, attempt, totalDelay, earlierFailures);
+                    listener.onGiveUp(exception, attempt, elapsed(started));
                     throw exception;
                 }
-                delay(attempt);
+                earlierFailures = remember(earlierFailures, exception);
+                listener.onRetry(exception, attempt, delay);
+                totalDelay += delay;
+                sleep(delay);
+                continue;
+            } catch (Error error) {
+                finish(timer);
+                release(acquired, error);
+                throw error;
+            }
+            finish(timer);
+            boolean retryResult = resultMatcher != null && resultMatcher.retry(result);
+            // A retried result is a failure for the concurrencyLimiter, like it is for the circuitBreaker
+            release(acquired, retryResult);
+            if (retryResult) {
+                long delay = retryDelay(null, attempt, attempt, started);
+                if (delay == GIVE_UP) {
+                    listener.onGiveUp(null, attempt, elapsed(started));
+                    return result;
+                }
+                listener.onRetry(null, attempt, delay);
+                totalDelay += delay;
+                sleep(delay);
+                continue;
+            }
+            circuitBreaker.onSuccess();
+            listener.onSuccess(attempt, elapsed(started));
+            return result;
+        }
+    }
+
+    /**
+     * Execute ContextualRetriable up to maxAttempt times, delaying specified time between each attempt.
+     *
+     * Named apart from execute, so that lambdas passed to execute do not become ambiguous.
+     *
+     * The AttemptContext passed to operation tells how much of the attempt timeout and deadline is left, so that it
+     * can be passed on to timeouts for sockets or queries.
+     *
+     * @param operation
+     * @param <T> The type of the ContextualRetriable
+     * @return The result of ContextualRetriable.execute.
+     * @throws Exception
+     */
+    public <T> T executeWithContext(ContextualRetriable<T> operation) throws Exception {
+        return execute(new Contextual<>(operation));
+    }
+
+    /**
+     * Execute BatchRetriable on items up to maxAttempt times, delaying specified time between each attempt. Only the
+     * items that failed with an exception that should be retried are passed to the next attempt.
+     *
+     * Hedging is not used for batches.
+     *
+     * @param items The items to pass to the first attempt
+     * @param operation
+     * @param <I> The type of the items
+     * @param <O> The type of the result for each item
+     * @return The results that were reported for items that succeeded, in the order they were reported.
+     * @throws BatchFailedException if any items failed with an exception that should not be retried, or still failed
+     * when the Retrier gave up.
+     * @throws Exception if an attempt threw when no item was left to fail with it, e.g. after every item was
+     * reported, or for an empty batch. It is not retried. An empty batch that the concurrencyLimiter rejects throws
+     * RejectedExecutionException.
+     */
+    public <I, O> Map<I, O> executeBatch(Collection<I> items, BatchRetriable<I, O> operation) throws Exception {
+        long started = started();
+        beforeFirstAttempt(started);
+        Batch<I, O> batch = new Batch<>(items);
+        for (int attempt = 1; ; attempt++) {
+            long acquired = acquire();
+            if (acquired == REJECTED) {
+                circuitBreaker.releasePermission();
+                RejectedExecutionException rejected = rejected(null);
+                if (batch.pending.isEmpty()) {
+                    // An empty batch has no item to carry the rejection
+                    listener.onGiveUp(rejected, attempt - 1, elapsed(started));
+                    throw rejected;
+                }
+                batch.failPending(rejected);
+                BatchFailedException failed = batch.failed();
+                listener.onGiveUp(failed, attempt - 1, elapsed(started));
+                throw failed;
+            }
+            listener.onAttempt(attempt);
+            long timeout = attemptTimeout(started);
+            AttemptTimer timer = startTimer(timeout);
+            try {
+                operation.execute(batch.nextAttempt(), batch, attempt);
+                finish(timer);
+                release(acquired, null);
+            } catch (Exception exception) {
+                exception = timedOut(timer, attempt, timeout, exception);
+                release(acquired, exception);
+                batch.failRemaining(exception);
+                if (batch.attemptFailures.isEmpty()) {
+                    // Every item was reported before the attempt threw, so no item can carry the exception
+                    if (exceptionMatcher.retry(exception)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                    listener.onGiveUp(exception, attempt, elapsed(started));
+                    throw exception;
+                }
+            } catch (Error error) {
+                finish(timer);
+                release(acquired, error);
+                throw error;
+            }
+            Exception retried = batch.sortFailures(exceptionMatcher);
+            if (retried == null) {
+                circuitBreaker.onSuccess();
+                if (batch.failures.isEmpty()) {
+                    listener.onSuccess(attempt, elapsed(started));
+                    return batch.results;
+                }
+                BatchFailedException failed = batch.failed();
+                listener.onGiveUp(failed, attempt, elapsed(started));
+                throw failed;
+            }
+            long delay = retryDelay(retried, attempt, attempt, started);
+            if (delay == GIVE_UP) {
+                batch.giveUp();
+                BatchFailedException failed = batch.failed();
+                listener.onGiveUp(failed, attempt, elapsed(started));
+                throw failed;
+            }
+            listener.onRetry(retried, attempt, delay);
+            sleep(delay);
+        }
+    }
+
+    private List<Exception> remember(List<Exception> earlierFailures, Exception exception) {
+        if (!suppressEarlierFailures) {
+            return null;
+        }
+        if (earlierFailures == null) {
+            earlierFailures = new ArrayList<>(maxAttempts);
+        }
+        earlierFailures.add(exception);
+        return earlierFailures;
+    }
+
+    /**
+     * @return The exception to end retrying with, which is failure unless throwRetriesExhausted is set.
+     */
+    private Throwable endedRetrying(Throwable failure, int attempt, long totalDelay,
+                                    List<Exception> earlierFailures) {
+        if (throwRetriesExhausted && failure instanceof Exception && exceptionMatcher.retry((Exception) failure)) {
+            failure = new RetriesExhaustedException(failure, attempt, totalDelay);
+        }
+        if (earlierFailures != null) {
+            for (Exception earlier : earlierFailures) {
+                // The same exception may be thrown again, and can not suppress itself
+                if (earlier != failure && earlier != failure.getCause()) {
+                    failure.addSuppressed(earlier);
+                }
             }
         }
-        return operation.execute(maxAttempts);
+        return failure;
+    }
+
+    private void beforeFirstAttempt(long started) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            CircuitBreakerOpenException open = new CircuitBreakerOpenException();
+            listener.onGiveUp(open, 0, elapsed(started));
+            throw open;
+        }
+        retryBudget.recordAttempt();
+    }
+
+    private long started() {
+        return deadline > 0 || listener != SILENT || contextualDelayStrategy != null ? clock.nanoTime() : 0;
+    }
+
+    private long elapsed(long started) {
+        return listener != SILENT ? clock.nanoTime() - started : 0;
+    }
+
+    /**
+     * Reports a failed attempt to the circuitBreaker and decides whether to retry it. The circuitBreaker is asked for
+     * permission last, so that a trial attempt it lets through is not lost when the retryBudget is empty, and the
+     * deadline is checked first, so that retries it rules out do not use up the retryBudget.
+     * @param exception what the attempt failed with, or null if it returned a result that should be retried.
+     * @param attempt the attempt that failed, which the delay is based on.
+     * @param attempts the number of attempts started so far, which may be more than attempt when hedging.
+     * @return Milliseconds to wait before the next attempt, or GIVE_UP.
+     */
+    private long retryDelay(Exception exception, int attempt, int attempts, long started) {
+        if (exception != null && !exceptionMatcher.retry(exception)) {
+            circuitBreaker.onSuccess();
+            return GIVE_UP;
+        }
+        circuitBreaker.onFailure();
+        if (attempts >= maxAttempts) {
+            return GIVE_UP;
+        }
+        long delay = delayAfter(attempt, exception, started);
+        return delay != GIVE_UP && retryBudget.tryRetry() && circuitBreaker.tryAcquirePermission() ? delay : GIVE_UP;
+    }
+
+    private long delayAfter(int attempt, Exception exception, long started) {
+        long delay = contextualDelayStrategy != null
+                ? contextualDelayStrategy.delay(attempt, exception, NANOSECONDS.toMillis(clock.nanoTime() - started))
+                : delayStrategy.delay(attempt);
+        // Waiting until the deadline leaves no time for another attempt
+        return deadline > 0 && delay >= remainingMillis(started) ? GIVE_UP : delay;
+    }
+
+    private long remainingMillis(long started) {
+        return deadline - NANOSECONDS.toMillis(clock.nanoTime() - started);
+    }
+
+    private long attemptTimeout(long started) {
+        long timeout = attemptTimeout > 0 ? attemptTimeout : NO_TIMEOUT;
+        return deadline > 0 ? Math.min(timeout, Math.max(0, remainingMillis(started))) : timeout;
+    }
+
+    private AttemptTimer startTimer(long timeout) {
+        if (timeout == NO_TIMEOUT) {
+            return null;
+        }
+        AttemptTimer timer = new AttemptTimer(Thread.currentThread());
+        timer.scheduled = timer().schedule(timer, timeout);
+        return timer;
+    }
+
+    /**
+     * @return Where to schedule the timeouts of attempts, which the default scheduler hands to a thread of its own.
+     */
+    private Scheduler timer() {
+        return scheduler == ScheduledExecutorScheduler.shared() ? ScheduledExecutorScheduler.timer() : scheduler;
+    }
+
+    private static void finish(AttemptTimer timer) {
+        if (timer != null) {
+            timer.finish();
+        }
     }
 
-    private void delay(int attempt) throws InterruptedException {
-        Thread.sleep(delayStrategy.delay(attempt));
+    private static Exception timedOut(AttemptTimer timer, int attempt, long timeout, Exception exception) {
+        if (timer == null || !timer.finish()) {
+            return exception;
+        }
+        return timeoutException(attempt, timeout, exception);
+    }
+
+    private static TimeoutException timeoutException(int attempt, long timeout, Throwable cause) {
+        TimeoutException timeoutException = new TimeoutException(
+                "Attempt " + attempt + " timed out after " + timeout + " ms");
+        timeoutException.initCause(cause);
+        return timeoutException;
+    }
+
+    /**
+     * Execute AsyncRetriable up to maxAttempt times, scheduling each retry on the scheduler instead of sleeping.
+     *
+     * The first attempt is made on the calling thread. Cancelling the returned future stops further attempts. An
+     * attempt that does not complete within the attempt timeout is cancelled and fails with TimeoutException.
+     *
+     * @param operation
+     * @param <T> The type of the AsyncRetriable
+     * @return A future that completes with the first successful result, or with the exception that ended retrying.
+     */
+    public <T> CompletableFuture<T> executeAsync(AsyncRetriable<T> operation) {
+        Execution<T> execution = new Execution<>(operation, executor);
+        if (permitFirstAttempt(execution.result, execution.started)) {
+            execution.attempt(1);
+        }
+        return execution.result;
+    }
+
+    /**
+     * Execute Retriable up to maxAttempt times on the executor, without blocking a thread between attempts.
+     * @param operation
+     * @param <T> The type of the Retriable
+     * @return A future that completes with the first successful result, or with the exception that ended retrying.
+     */
+    public <T> CompletableFuture<T> executeAsync(Retriable<T> operation) {
+        if (hedgeDelay > 0) {
+            return executeHedged(operation);
+        }
+        Execution<T> execution = new Execution<>(TryAgain.async(operation), blockingExecutor());
+        if (permitFirstAttempt(execution.result, execution.started)) {
+            execution.schedule(1, 0);
+        }
+        return execution.result;
+    }
+
+    /**
+     * Execute RetriableWithoutResult up to maxAttempt times on the executor, without blocking a thread between
+     * attempts.
+     * @param operation
+     * @return A future that completes when an attempt succeeds, or with the exception that ended retrying.
+     */
+    public CompletableFuture<Void> executeAsync(RetriableWithoutResult operation) {
+        return executeAsync(TryAgain.from(operation));
+    }
+
+    /**
+     * Execute ContextualRetriable up to maxAttempt times on the executor, without blocking a thread between
+     * attempts.
+     * @param operation
+     * @param <T> The type of the ContextualRetriable
+     * @return A future that completes with the first successful result, or with the exception that ended retrying.
+     */
+    public <T> CompletableFuture<T> executeAsyncWithContext(ContextualRetriable<T> operation) {
+        return executeAsync(new Contextual<>(operation));
+    }
+
+    /**
+     * @return The executor for attempts that may block, which is never the scheduler.
+     */
+    private Executor blockingExecutor() {
+        return executor == RUN_ON_SCHEDULER ? AttemptPool.shared() : executor;
+    }
+
+    private boolean permitFirstAttempt(CompletableFuture<?> result, long started) {
+        try {
+            beforeFirstAttempt(started);
+            return true;
+        } catch (CircuitBreakerOpenException open) {
+            result.completeExceptionally(open);
+            return false;
+        }
+    }
+
+    /**
+     * The state of one call to executeAsync.
+     */
+    private class Execution<T> {
+        private final AsyncRetriable<T> operation;
+        private final Executor attemptExecutor;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long started = started();
+        // Only touched by one attempt at a time
+        private long totalDelay;
+        private List<Exception> earlierFailures;
+
+        private Execution(final AsyncRetriable<T> operation, final Executor attemptExecutor) {
+            this.operation = operation;
+            this.attemptExecutor = attemptExecutor;
+        }
+
+        private void attempt(final int attempt) {
+            if (result.isDone()) {
+                // Cancelled while waiting for the attempt
+                circuitBreaker.releasePermission();
+                return;
+            }
+            final long acquired = acquire();
+            if (acquired == REJECTED) {
+                circuitBreaker.releasePermission();
+                RejectedExecutionException rejected = rejected(earlierFailures);
+                if (result.completeExceptionally(rejected)) {
+                    listener.onGiveUp(rejected, attempt - 1, elapsed(started));
+                }
+                return;
+            }
+            listener.onAttempt(attempt);
+            final long timeout = attemptTimeout(started);
+            AttemptTimer timer = startTimer(timeout);
+            CompletionStage<T> stage;
+            try {
+                stage = operation.execute(attempt);
+            } catch (Exception exception) {
+                exception = timedOut(timer, attempt, timeout, exception);
+                release(acquired, exception);
+                retry(attempt, exception);
+                return;
+            } catch (Error error) {
+                finish(timer);
+                release(acquired, error);
+                throw error;
+            }
+            finish(timer);
+            if (timeout != NO_TIMEOUT) {
+                stage = withTimeout(stage, attempt, timeout);
+            }
+            stage.whenComplete((value, failure) -> {
+                release(acquired, failure);
+                if (failure == null) {
+                    circuitBreaker.onSuccess();
+                    if (result.complete(value)) {
+                        listener.onSuccess(attempt, elapsed(started));
+                    }
+                } else {
+                    retry(attempt, failure);
+                }
+            });
+        }
+
+        private CompletionStage<T> withTimeout(final CompletionStage<T> stage, final int attempt,
+                                               final long timeout) {
+            final CompletableFuture<T> attemptResult = new CompletableFuture<>();
+            final Cancellable timer = timer().schedule(() -> {
+                if (attemptResult.completeExceptionally(timeoutException(attempt, timeout, null))) {
+                    stage.toCompletableFuture().cancel(true);
+                }
+            }, timeout);
+            stage.whenComplete((value, failure) -> {
+                timer.cancel();
+                if (failure == null) {
+                    attemptResult.complete(value);
+                } else {
+                    attemptResult.completeExceptionally(failure);
+                }
+            });
+            return attemptResult;
+        }
+
+        private void retry(int attempt, Throwable failure) {
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            long delay = failure instanceof Exception
+                    ? retryDelay((Exception) failure, attempt, attempt, started) : GIVE_UP;
+            if (delay == GIVE_UP) {
+                giveUp(failure, attempt);
+                return;
+            }
+            earlierFailures = remember(earlierFailures, (Exception) failure);
+            listener.onRetry((Exception) failure, attempt, delay);
+            totalDelay += delay;
+            schedule(attempt + 1, delay);
+        }
+
+        private void schedule(final int attempt, long delay) {
+            try {
+                scheduler.schedule(() -> run(attempt), delay);
+            } catch (RuntimeException rejected) {
+                circuitBreaker.releasePermission();
+                giveUp(rejected, attempt - 1);
+            }
+        }
+
+        private void run(final int attempt) {
+            try {
+                attemptExecutor.execute(() -> attempt(attempt));
+            } catch (RuntimeException rejected) {
+                circuitBreaker.releasePermission();
+                giveUp(rejected, attempt - 1);
+            }
+        }
+
+        private void giveUp(Throwable failure, int attempt) {
+            if (result.isDone()) {
+                return;
+            }
+            failure = endedRetrying(failure, attempt, totalDelay, earlierFailures);
+            if (result.completeExceptionally(failure)) {
+                listener.onGiveUp(failure, attempt, elapsed(started));
+            }
+        }
+    }
+
+    /**
+     * Waits before a retry that the circuitBreaker has given permission for, handing the permission back if
+     * interrupted.
+     */
+    private void sleep(long delay) throws InterruptedException {
+        try {
+            clock.sleep(delay);
+        } catch (InterruptedException interrupted) {
+            circuitBreaker.releasePermission();
+            throw interrupted;
+        }
+    }
+
+    /**
+     * @return When the permit for an attempt was acquired, or REJECTED if the concurrencyLimiter has none to give.
+     */
+    private long acquire() {
+        if (concurrencyLimiter == NO_LIMIT) {
+            return 0;
+        }
+        return concurrencyLimiter.tryAcquire() ? clock.nanoTime() : REJECTED;
     }
 
+    private void release(long acquired, Throwable failure) {
+        if (concurrencyLimiter == NO_LIMIT) {
+            return;
+        }
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        release(acquired, failure instanceof Exception && exceptionMatcher.retry((Exception) failure));
+    }
+
+    /**
+     * @param failed whether the attempt failed with an exception or result that is retried.
+     */
+    private void release(long acquired, boolean failed) {
+        if (concurrencyLimiter == NO_LIMIT) {
+            return;
+        }
+        long latency = clock.nanoTime() - acquired;
+        if (failed) {
+            concurrencyLimiter.onFailure(latency);
+        } else {
+            concurrencyLimiter.onSuccess(latency);
+        }
+    }
+
+    /**
+     * @return The exception to give up with when the concurrencyLimiter rejects an attempt, which is never made.
+     */
+    private static RejectedExecutionException rejected(List<Exception> earlierFailures) {
+        RejectedExecutionException rejected = new RejectedExecutionException("Concurrency limit reached");
+        if (earlierFailures != null) {
+            for (Exception earlier : earlierFailures) {
+                rejected.addSuppressed(earlier);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Adapts a ContextualRetriable, passing it the time left of the attempt timeout and deadline.
+     */
+    private class Contextual<T> implements Retriable<T> {
+        private final ContextualRetriable<T> operation;
+        private final long started = started();
+
+        private Contextual(final ContextualRetriable<T> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public T execute(final int attempt) throws Exception {
+            final long attemptStarted = clock.nanoTime();
+            final long timeout = attemptTimeout(started);
+            return operation.execute(new AttemptContext() {
+                @Override
+                public int attempt() {
+                    return attempt;
+                }
+
+                @Override
+                public long remainingMillis() {
+                    if (timeout == NO_TIMEOUT) {
+                        return NO_TIMEOUT;
+                    }
+                    return Math.max(0, timeout - NANOSECONDS.toMillis(clock.nanoTime() - attemptStarted));
+                }
+            });
+        }
+    }
+
+    /**
+     * Interrupts the thread running an attempt when the attempt timeout has passed.
+     */
+    private static class AttemptTimer implements Runnable {
+        private static final int RUNNING = 0;
+        private static final int INTERRUPTING = 1;
+        private static final int INTERRUPTED = 2;
+        private static final int FINISHED = 3;
+
+        private final Thread thread;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        // Set and cancelled by the thread that runs the attempt
+        private Cancellable scheduled;
+
+        private AttemptTimer(final Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                thread.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }
+
+        /**
+         * Called by the thread that ran the attempt once it is over.
+         * @return true if the attempt timed out, in which case the interrupt is cleared.
+         */
+        private boolean finish() {
+            if (state.compareAndSet(RUNNING, FINISHED)) {
+                scheduled.cancel();
+                return false;
+            }
+            if (state.get() == FINISHED) {
+                return false;
+            }
+            while (state.get() != INTERRUPTED) {
+                Thread.yield();
+            }
+            Thread.interrupted();
+            return true;
+        }
+    }
+
+    private static class Batch<I, O> implements BatchOutcome<I, O> {
+        private final Map<I, O> results = new LinkedHashMap<>();
+        private final Map<I, Exception> failures = new LinkedHashMap<>();
+        private final Map<I, Exception> attemptFailures = new LinkedHashMap<>();
+        private List<I> pending;
+
+        private Batch(final Collection<I> items) {
+            pending = new ArrayList<>(items);
+        }
+
+        private Collection<I> nextAttempt() {
+            attemptFailures.clear();
+            return Collections.unmodifiableList(pending);
+        }
+
+        @Override
+        public void succeeded(final I item, final O result) {
+            attemptFailures.remove(item);
+            results.put(item, result);
+        }
+
+        @Override
+        public void failed(final I item, final Exception exception) {
+            results.remove(item);
+            attemptFailures.put(item, exception);
+        }
+
+        private void failPending(Exception exception) {
+            for (I item : pending) {
+                failures.put(item, exception);
+            }
+        }
+
+        private void failRemaining(Exception exception) {
+            for (I item : pending) {
+                if (!results.containsKey(item) && !attemptFailures.containsKey(item)) {
+                    attemptFailures.put(item, exception);
+                }
+            }
+        }
+
+        /**
+         * Moves the failures of the last attempt that should not be retried to failures and the rest to pending.
+         * @return An exception that should be retried, or null if there is none.
+         */
+        private Exception sortFailures(ExceptionMatcher exceptionMatcher) {
+            Exception retried = null;
+            Iterator<Map.Entry<I, Exception>> attempted = attemptFailures.entrySet().iterator();
+            while (attempted.hasNext()) {
+                Map.Entry<I, Exception> failure = attempted.next();
+                if (exceptionMatcher.retry(failure.getValue())) {
+                    retried = retried == null ? failure.getValue() : retried;
+                } else {
+                    failures.put(failure.getKey(), failure.getValue());
+                    attempted.remove();
+                }
+            }
+            pending = new ArrayList<>(attemptFailures.keySet());
+            return retried;
+        }
+
+        private void giveUp() {
+            failures.putAll(attemptFailures);
+        }
+
+        private BatchFailedException failed() {
+            return new BatchFailedException(results, failures);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException failed) {
+            Throwable cause = failed.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw failed;
+        } catch (InterruptedException interrupted) {
+            future.cancel(true);
+            throw interrupted;
+        }
+    }
+
+    private <T> CompletableFuture<T> executeHedged(Retriable<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Hedge<T> hedge = new Hedge<>(operation, result);
+        if (permitFirstAttempt(result, hedge.started)) {
+            hedge.schedule(0);
+        }
+        return result;
+    }
+
+    /**
+     * Races attempts of one blocking Retriable against each other, starting a new one every hedgeDelay millis.
+     */
+    private class Hedge<T> {
+        private final Retriable<T> operation;
+        private final CompletableFuture<T> result;
+        private final AtomicInteger launched = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final Queue<Future<?>> tasks = new ConcurrentLinkedQueue<>();
+        private final long started = started();
+
+        private Hedge(final Retriable<T> operation, final CompletableFuture<T> result) {
+            this.operation = operation;
+            this.result = result;
+            result.whenComplete((value, failure) -> cancelAll());
+        }
+
+        /**
+         * Starts the first attempt, or a retry, which the circuitBreaker has given permission for.
+         */
+        private void schedule(long delay) {
+            if (!schedule(() -> start(true), delay)) {
+                circuitBreaker.releasePermission();
+            }
+        }
+
+        private boolean schedule(Runnable task, long delay) {
+            try {
+                scheduler.schedule(task, delay);
+                return true;
+            } catch (RuntimeException rejected) {
+                result.completeExceptionally(rejected);
+                return false;
+            }
+        }
+
+        /**
+         * @param permitted whether the circuitBreaker gave permission for this attempt, which hedges do not ask for.
+         */
+        private void start(final boolean permitted) {
+            if (result.isDone()) {
+                unused(permitted);
+                return;
+            }
+            final int attempt = launched.incrementAndGet();
+            if (attempt > maxAttempts) {
+                unused(permitted);
+                return;
+            }
+            running.incrementAndGet();
+            FutureTask<Void> task = new FutureTask<>(() -> run(attempt, permitted), null);
+            tasks.add(task);
+            if (result.isDone()) {
+                // Completed while adding the task, so cancelAll may have missed it
+                task.cancel(true);
+                unused(permitted);
+                return;
+            }
+            if (attempt < maxAttempts) {
+                // Scheduled first, the executor may run the attempt on this thread
+                schedule(() -> {
+                    if (launched.get() == attempt) {
+                        start(false);
+                    }
+                }, hedgeDelay);
+            }
+            try {
+                blockingExecutor().execute(task);
+            } catch (RuntimeException rejected) {
+                unused(permitted);
+                result.completeExceptionally(rejected);
+            }
+        }
+
+        private void unused(boolean permitted) {
+            if (permitted) {
+                circuitBreaker.releasePermission();
+            }
+        }
+
+        private void run(int attempt, boolean permitted) {
+            long acquired = acquire();
+            if (acquired == REJECTED) {
+                unused(permitted);
+                // Hedges the limiter rejects are skipped, while other attempts are still running
+                if (running.decrementAndGet() == 0) {
+                    giveUp(rejected(null), attempt - 1);
+                }
+                return;
+            }
+            listener.onAttempt(attempt);
+            long timeout = attemptTimeout(started);
+            AttemptTimer timer = startTimer(timeout);
+            try {
+                T value = operation.execute(attempt);
+                finish(timer);
+                release(acquired, null);
+                circuitBreaker.onSuccess();
+                if (result.complete(value)) {
+                    listener.onSuccess(attempt, elapsed(started));
+                }
+            } catch (Exception exception) {
+                exception = timedOut(timer, attempt, timeout, exception);
+                release(acquired, exception);
+                int stillRunning = running.decrementAndGet();
+                if (result.isDone()) {
+                    return;
+                }
+                long delay = retryDelay(exception, attempt, launched.get(), started);
+                if (delay != GIVE_UP) {
+                    listener.onRetry(exception, attempt, delay);
+                    schedule(delay);
+                } else if (stillRunning == 0 || !exceptionMatcher.retry(exception)) {
+                    giveUp(exception, attempt);
+                }
+            } catch (Error error) {
+                finish(timer);
+                release(acquired, error);
+                giveUp(error, attempt);
+            }
+        }
+
+        private void giveUp(Throwable failure, int attempt) {
+            if (result.completeExceptionally(failure)) {
+                listener.onGiveUp(failure, attempt, elapsed(started));
+            }
+        }
+
+        private void cancelAll() {
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Thrown by a Retrier configured with throwRetriesExhausted when it gives up on an exception it would have retried.
+ * The cause is the exception of the last attempt.
+ *
+ * It has no stack trace of its own and builds its message when it is read, so it is cheap to create even when every
+ * call is failing.
+ */
+public class RetriesExhaustedException extends WrappedException {
+    private final int attempts;
+    private final long totalDelayMillis;
+
+    public RetriesExhaustedException(final Throwable cause, final int attempts, final long totalDelayMillis) {
+        // The message is built by getMessage, cause.toString() may be expensive and is often never needed
+        super(null, cause, false);
+        this.attempts = attempts;
+        this.totalDelayMillis = totalDelayMillis;
+    }
+
+    /**
+     * @return The number of attempts that were made.
+     */
+    public int attempts() {
+        return attempts;
+    }
+
+    /**
+     * @return Milliseconds spent delaying between attempts.
+     */
+    public long totalDelayMillis() {
+        return totalDelayMillis;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Gave up after " + attempts + " attempts and " + totalDelayMillis + " ms of delays: " + getCause();
+    }
+}
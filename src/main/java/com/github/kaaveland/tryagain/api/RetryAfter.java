@@ -0,0 +1,11 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Implemented by exceptions that know how long to wait before trying again, e.g. from a Retry-After header.
+ */
+public interface RetryAfter {
+    /**
+     * @return Milliseconds to wait before trying again, or a negative number if there is no hint.
+     */
+    public long retryAfterMillis();
+}
@@ -0,0 +1,18 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Limits how many retries may be made, so that retries from many Retriers can not multiply the load on a system
+ * that is already failing. A RetryBudget may be shared between any number of Retriers.
+ */
+public interface RetryBudget {
+    /**
+     * Called by Retrier before the first attempt to invoke a Retriable.
+     */
+    public void recordAttempt();
+
+    /**
+     * Called by Retrier when an attempt failed with an exception that should be retried.
+     * @return true if the retry fits in the budget and has been accounted for, false to give up right away.
+     */
+    public boolean tryRetry();
+}
@@ -0,0 +1,41 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Gets told what a Retrier is doing, e.g. to collect metrics. Register one with Retrier.withListener.
+ *
+ * Methods are called on the thread making the attempt and should return quickly. They all do nothing by default.
+ */
+public interface RetryListener {
+    /**
+     * Called before every attempt to invoke a Retriable.
+     * @param attempt 1 for the first attempt, goes up to maxAttempts.
+     */
+    public default void onAttempt(int attempt) {
+    }
+
+    /**
+     * Called when an attempt failed and is about to be retried.
+     * @param exception what the attempt failed with, or null if it returned a result that should be retried.
+     * @param attempt the attempt that failed.
+     * @param delayMillis how long Retrier waits before the next attempt.
+     */
+    public default void onRetry(Exception exception, int attempt, long delayMillis) {
+    }
+
+    /**
+     * Called when an attempt succeeded.
+     * @param attempt the attempt that succeeded.
+     * @param elapsedNanos time since the call to execute, including all attempts and delays.
+     */
+    public default void onSuccess(int attempt, long elapsedNanos) {
+    }
+
+    /**
+     * Called when Retrier gives up and lets the exception through, or returns a result that should have been retried.
+     * @param exception the exception the call fails with, or null if it returns the last result.
+     * @param attempt the last attempt made, 0 if the call was rejected before the first attempt.
+     * @param elapsedNanos time since the call to execute, including all attempts and delays.
+     */
+    public default void onGiveUp(Throwable exception, int attempt, long elapsedNanos) {
+    }
+}
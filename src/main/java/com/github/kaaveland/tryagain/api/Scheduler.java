@@ -0,0 +1,14 @@
+package com.github.kaaveland.tryagain.api;
+
+/**
+ * Used by Retrier.executeAsync to run attempts after a delay without blocking a thread while waiting.
+ */
+public interface Scheduler {
+    /**
+     * Run task once, after delayMillis have passed.
+     * @param task the next attempt to run.
+     * @param delayMillis milliseconds to wait before running task, may be 0.
+     * @return A Cancellable that drops task if it has not started yet.
+     */
+    public Cancellable schedule(Runnable task, long delayMillis);
+}
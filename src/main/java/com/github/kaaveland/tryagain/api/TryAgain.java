@@ -1,7 +1,14 @@
 package com.github.kaaveland.tryagain.api;
 
+import com.github.kaaveland.tryagain.impl.CausedBy;
 import com.github.kaaveland.tryagain.impl.ExceptionIn;
 import com.github.kaaveland.tryagain.impl.InstanceOf;
+import com.github.kaaveland.tryagain.impl.RetryingProxy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * TryAgain is a natural entrypoint to create Retrier in a readable way.
@@ -53,6 +60,16 @@ public class TryAgain {
         return new Retrier(new InstanceOf(exceptions));
     }
 
+    /**
+     * This creates a Retrier with an ExceptionMatcher that instance-checks the exception and each of its causes.
+     * @param exceptions exception classes to instance-check the cause chain against
+     * @return A Retrier configured with a CausedBy exception-matcher
+     */
+    @SafeVarargs
+    public static Retrier onCause(Class<? extends Exception>... exceptions) {
+        return new Retrier(new CausedBy(exceptions));
+    }
+
     /**
      * Translate a RetriableWithoutResult to a Retriable of Void.
      * @param withoutResult
@@ -67,4 +84,46 @@ public class TryAgain {
             }
         };
     }
+
+    /**
+     * Translate a blocking Retriable to an AsyncRetriable that runs on the calling thread.
+     * @param retriable
+     * @param <T>
+     * @return An AsyncRetriable returning an already completed stage.
+     */
+    public static <T> AsyncRetriable<T> async(final Retriable<T> retriable) {
+        return new AsyncRetriable<T>() {
+            @Override
+            public CompletionStage<T> execute(final int attempt) throws Exception {
+                return CompletableFuture.completedFuture(retriable.execute(attempt));
+            }
+        };
+    }
+
+    /**
+     * Implement an interface by calling target with retrier, instead of wrapping each method in a Retriable by hand.
+     * @param type the interface to implement.
+     * @param target the implementation to call.
+     * @param retrier the Retrier to call every method with.
+     * @param <I> The type of the interface
+     * @return A proxy implementing type.
+     */
+    public static <I> I proxy(Class<I> type, I target, Retrier retrier) {
+        return RetryingProxy.create(type, target, retrier, Collections.<String, Retrier>emptyMap());
+    }
+
+    /**
+     * Implement an interface by calling target with a Retrier chosen for each method, e.g. to only retry the methods
+     * that are idempotent. The Retrier for each method is found when the proxy is created, not on every call.
+     * @param type the interface to implement.
+     * @param target the implementation to call.
+     * @param retrier the Retrier for methods that are not in retriersByMethod.
+     * @param retriersByMethod Retriers by method name, null to call a method once. Overloads share a Retrier.
+     * @param <I> The type of the interface
+     * @return A proxy implementing type.
+     * @throws IllegalArgumentException if type is not an interface, or has no method for a name in retriersByMethod.
+     */
+    public static <I> I proxy(Class<I> type, I target, Retrier retrier, Map<String, Retrier> retriersByMethod) {
+        return RetryingProxy.create(type, target, retrier, retriersByMethod);
+    }
 }
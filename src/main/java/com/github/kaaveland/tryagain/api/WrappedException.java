@@ -7,4 +7,20 @@ public class WrappedException extends RuntimeException {
     public WrappedException(final Throwable cause) {
         super(cause);
     }
+
+    /**
+     * @param cause
+     * @param writableStackTrace false to skip capturing the stack trace, which is the expensive part of creating an
+     *                           exception. The stack trace of cause is kept.
+     */
+    public WrappedException(final Throwable cause, final boolean writableStackTrace) {
+        this(cause == null ? null : cause.toString(), cause, writableStackTrace);
+    }
+
+    /**
+     * For subclasses that build their message in getMessage, so that it is only paid for when someone reads it.
+     */
+    protected WrappedException(final String message, final Throwable cause, final boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
@@ -0,0 +1,94 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ConcurrencyLimiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ConcurrencyLimiter that adapts its limit with additive increase, multiplicative decrease (AIMD).
+ *
+ * The limit grows by one for each attempt that succeeds faster than latencyThresholdMillis while at least half the
+ * limit is in use, and is multiplied by backoffRatio for each attempt that fails or is slower than the threshold. It
+ * never drops below 1, so some attempts always get through to find out if the system has recovered.
+ *
+ * Admitting and releasing attempts is done with compare-and-set, without locks or allocation.
+ */
+public class AimdConcurrencyLimiter implements ConcurrencyLimiter {
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param initialLimit the number of attempts to allow in flight before any have completed.
+     * @param maxLimit the largest the limit may grow to.
+     * @param latencyThresholdMillis attempts slower than this decrease the limit as if they failed.
+     * @param backoffRatio multiply the limit by this on failure, e.g. 0.9.
+     */
+    public AimdConcurrencyLimiter(final int initialLimit, final int maxLimit, final long latencyThresholdMillis,
+                                  final double backoffRatio) {
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdMillis * 1000000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.max(1, Math.min(initialLimit, maxLimit)));
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void onSuccess(final long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+            return;
+        }
+        int limit = this.limit.get();
+        // Only grow when the limit is actually in use, otherwise it grows without bounds while idle
+        if (current * 2 >= limit && limit < maxLimit) {
+            this.limit.compareAndSet(limit, limit + 1);
+        }
+    }
+
+    @Override
+    public void onFailure(final long latencyNanos) {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    private void decrease() {
+        for (;;) {
+            int current = limit.get();
+            int decreased = Math.max(1, (int) (current * backoffRatio));
+            if (decreased == current || limit.compareAndSet(current, decreased)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of attempts currently allowed in flight.
+     */
+    public int limit() {
+        return limit.get();
+    }
+
+    /**
+     * @return The number of attempts currently in flight.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.kaaveland.tryagain.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Runs the blocking Retriables passed to Retrier.executeAsync, unless another Executor is given with executeOn.
+ *
+ * Blocking attempts are kept off the threads of the scheduler, so that they can not hold up delays, timeouts and
+ * hedges that are due while they run.
+ */
+public final class AttemptPool {
+    private AttemptPool() {
+    }
+
+    /**
+     * @return An Executor backed by a lazily created pool of daemon threads, 8 per available processor and at least
+     * 64. Threads exit after a minute without work, and attempts wait in a queue while every thread is busy.
+     */
+    public static Executor shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static class Shared {
+        private static final Executor INSTANCE = createExecutor();
+
+        private static Executor createExecutor() {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            int threads = Math.max(64, 8 * Runtime.getRuntime().availableProcessors());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(runnable, "tryagain-attempt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
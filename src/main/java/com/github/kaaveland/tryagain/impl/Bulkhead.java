@@ -0,0 +1,79 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ConcurrencyLimiter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ConcurrencyLimiter with a fixed number of permits, where up to maxWaiting callers may wait for a permit.
+ *
+ * A free permit is taken without waiting. When there is none, callers wait up to maxWaitMillis in a queue, and are
+ * rejected right away if the queue is full. Retrier holds the permit only during an attempt, so retries waiting out
+ * their delay leave room for other calls.
+ *
+ * Waiting blocks the calling thread, so use a maxWaitMillis of 0 with executeAsync.
+ */
+public class Bulkhead implements ConcurrencyLimiter {
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long maxWaitMillis;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * @param maxConcurrent the number of attempts that may run at the same time.
+     * @param maxWaiting the number of callers that may wait for a permit.
+     * @param maxWaitMillis how long a caller may wait for a permit before it is rejected.
+     */
+    public Bulkhead(final int maxConcurrent, final int maxWaiting, final long maxWaitMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitMillis <= 0 || waiting.incrementAndGet() > maxWaiting) {
+            if (maxWaitMillis > 0) {
+                waiting.decrementAndGet();
+            }
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void onSuccess(final long latencyNanos) {
+        permits.release();
+    }
+
+    @Override
+    public void onFailure(final long latencyNanos) {
+        permits.release();
+    }
+
+    /**
+     * @return The number of permits that are free.
+     */
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return The number of callers waiting for a permit.
+     */
+    public int waiting() {
+        return waiting.get();
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.kaaveland.tryagain.impl;
 
+import com.github.kaaveland.tryagain.api.ResultMatcher;
 import com.github.kaaveland.tryagain.api.Retriable;
 import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
 import com.github.kaaveland.tryagain.api.Retrier;
@@ -20,6 +21,15 @@ public class BypassExceptionChecking {
         }
     }
 
+    public <T> T execute(Retriable<T> operation, ResultMatcher<? super T> resultMatcher) {
+        try {
+            return retrier.execute(operation, resultMatcher);
+        } catch (Exception exception) {
+            ThrowUncheckedHack.throwUnchecked(exception);
+            return null; // Dead code
+        }
+    }
+
     public void execute(RetriableWithoutResult operation) {
         try {
             retrier.execute(operation);
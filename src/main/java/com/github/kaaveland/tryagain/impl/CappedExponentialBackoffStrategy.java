@@ -0,0 +1,29 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+
+/**
+ * Delays base * multiplier ^ (attempt - 1) millis, but never more than cap millis.
+ */
+public class CappedExponentialBackoffStrategy implements DelayStrategy {
+    private final long base;
+    private final double multiplier;
+    private final long cap;
+
+    public CappedExponentialBackoffStrategy(final long base, final double multiplier, final long cap) {
+        this.base = base;
+        this.multiplier = multiplier;
+        this.cap = cap;
+    }
+
+    @Override
+    public long delay(final int attempt) {
+        return cappedBackoff(base, multiplier, cap, attempt);
+    }
+
+    static long cappedBackoff(long base, double multiplier, long cap, int attempt) {
+        // Computed as a double so that large attempts saturate instead of overflowing
+        double backoff = base * Math.pow(multiplier, attempt - 1);
+        return backoff >= cap ? cap : (long) backoff;
+    }
+}
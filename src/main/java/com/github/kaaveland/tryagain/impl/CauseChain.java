@@ -0,0 +1,28 @@
+package com.github.kaaveland.tryagain.impl;
+
+import java.util.function.Predicate;
+
+/**
+ * Looks through an exception and its causes, as CausedBy and RetryAfterDelayStrategy do.
+ */
+final class CauseChain {
+    // Guards against cause chains that loop back on themselves
+    private static final int MAX_DEPTH = 32;
+
+    private CauseChain() {
+    }
+
+    /**
+     * @return The first of exception and its causes that matches, or null if none of them does.
+     */
+    static Throwable find(Throwable exception, Predicate<Throwable> matches) {
+        Throwable cause = exception;
+        for (int depth = 0; cause != null && depth < MAX_DEPTH; depth++) {
+            if (matches.test(cause)) {
+                return cause;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ExceptionMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * This will match exceptions that are, or were caused by, instances of any of the classes passed in to constructor.
+ *
+ * Useful when the exception to retry arrives wrapped, e.g. a SocketTimeoutException inside an exception from a
+ * client library. Each link in the cause chain costs one cached lookup, as in InstanceOf.
+ */
+public class CausedBy implements ExceptionMatcher {
+    private final InstanceOf instanceOf;
+    // Created once, so that matching does not allocate
+    private final Predicate<Throwable> matches;
+
+    public CausedBy(final List<Class<? extends Exception>> exceptionTypes) {
+        this.instanceOf = new InstanceOf(exceptionTypes);
+        this.matches = cause -> instanceOf.matches(cause.getClass());
+    }
+
+    @SafeVarargs
+    public CausedBy(Class<? extends Exception>... exceptionTypes) {
+        this(Arrays.asList(exceptionTypes));
+    }
+
+    @Override
+    public boolean retry(final Exception exception) {
+        return CauseChain.find(exception, matches) != null;
+    }
+}
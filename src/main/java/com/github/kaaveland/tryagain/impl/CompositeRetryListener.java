@@ -0,0 +1,40 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.RetryListener;
+
+/**
+ * Passes every event on to two RetryListeners, in order. Used by Retrier.withListener to add listeners.
+ */
+public class CompositeRetryListener implements RetryListener {
+    private final RetryListener first;
+    private final RetryListener second;
+
+    public CompositeRetryListener(final RetryListener first, final RetryListener second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void onAttempt(final int attempt) {
+        first.onAttempt(attempt);
+        second.onAttempt(attempt);
+    }
+
+    @Override
+    public void onRetry(final Exception exception, final int attempt, final long delayMillis) {
+        first.onRetry(exception, attempt, delayMillis);
+        second.onRetry(exception, attempt, delayMillis);
+    }
+
+    @Override
+    public void onSuccess(final int attempt, final long elapsedNanos) {
+        first.onSuccess(attempt, elapsedNanos);
+        second.onSuccess(attempt, elapsedNanos);
+    }
+
+    @Override
+    public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+        first.onGiveUp(exception, attempt, elapsedNanos);
+        second.onGiveUp(exception, attempt, elapsedNanos);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays a random amount of millis between base and 3 times the previous delay, capped at cap.
+ *
+ * DelayStrategy only knows the attempt number, so every call draws the chain of previous delays again from
+ * attempt 1. The delays follow the same distribution as if the previous delay had been remembered, without keeping
+ * any state between calls.
+ */
+public class DecorrelatedJitterStrategy implements DelayStrategy {
+    private final long base;
+    private final long cap;
+
+    public DecorrelatedJitterStrategy(final long base, final long cap) {
+        this.base = base;
+        this.cap = cap;
+    }
+
+    @Override
+    public long delay(final int attempt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = base;
+        for (int i = 0; i < attempt; i++) {
+            long upper = delay > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : delay * 3;
+            delay = Math.min(cap, base + (long) (random.nextDouble() * (upper - base)));
+        }
+        return delay;
+    }
+}
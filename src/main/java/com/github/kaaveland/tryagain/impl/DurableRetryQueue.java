@@ -0,0 +1,427 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ContextualDelayStrategy;
+import com.github.kaaveland.tryagain.api.DurableOperation;
+import com.github.kaaveland.tryagain.api.Retrier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Retries a DurableOperation until it succeeds, across restarts of the process, by keeping what is left to do in an
+ * append-only journal on local disk.
+ *
+ * submit writes the descriptor of an operation to the journal and returns once it is on disk. Attempts run on a pool
+ * of worker threads owned by the queue. Every failure that the Retrier's ExceptionMatcher retries is recorded with the
+ * time of the next attempt, chosen by its DelayStrategy, until maxAttempts is reached. When the queue is opened again,
+ * it picks up every operation that had not completed or been given up on, at its due time and attempt number. The
+ * listener of the Retrier is told about attempts, its timeouts, budget, circuit breaker and hedging are not used.
+ *
+ * The journal is a memory mapped file of maxJournalBytes. Concurrent submits share one force of the file to disk, so
+ * throughput does not suffer from each of them waiting for its own. When the journal is full, and every time it is
+ * opened, it is compacted to a new file holding only the next id and the operations that are still pending. The
+ * journal records that an operation completed after the operation ran, so an operation may run again if the process
+ * dies in between.
+ */
+public class DurableRetryQueue implements Closeable {
+    private static final byte SUBMITTED = 1;
+    private static final byte RETRYING = 2;
+    private static final byte DONE = 3;
+    // Written first by compact, so ids are not reused after every operation has completed
+    private static final byte NEXT_ID = 4;
+    // length, checksum
+    private static final int HEADER = 4 + 4;
+    // type, id, attempt, due, submitted
+    private static final int FIELDS = 1 + 8 + 4 + 8 + 8;
+
+    public final Retrier retrier;
+    private final Path file;
+    private final int maxJournalBytes;
+    private final DurableOperation operation;
+    private final ScheduledThreadPoolExecutor workers;
+
+    // Guarded by this
+    private final Map<Long, Entry> pending = new LinkedHashMap<>();
+    private MappedByteBuffer journal;
+    private long appended;
+    private long nextId;
+    private boolean closed;
+
+    private final Object flushLock = new Object();
+    // Guarded by flushLock
+    private long durable;
+    private boolean flushing;
+
+    /**
+     * Open the journal at file, creating it if it does not exist, and start retrying the operations in it.
+     * @param retrier decides which exceptions to retry, how many times and with which delays.
+     * @param file where to keep the journal. A file next to it is used while compacting.
+     * @param maxJournalBytes the size of the journal, which must fit every pending operation.
+     * @param workers the number of threads to run attempts on.
+     * @param operation what to do with each submitted descriptor.
+     * @throws IOException if the journal can not be read or written.
+     */
+    public DurableRetryQueue(final Retrier retrier, final Path file, final int maxJournalBytes, final int workers,
+                             final DurableOperation operation) throws IOException {
+        this.retrier = retrier;
+        this.file = file;
+        this.maxJournalBytes = maxJournalBytes;
+        this.operation = operation;
+        this.workers = createWorkers(workers, file.getFileName().toString());
+        synchronized (this) {
+            if (Files.exists(file)) {
+                replay();
+            }
+            compact();
+            for (Entry entry : pending.values()) {
+                schedule(entry);
+            }
+        }
+    }
+
+    /**
+     * Add an operation to the queue, and start its first attempt.
+     * @param descriptor what the DurableOperation needs to perform the operation.
+     * @return An id for the operation, unique within the journal.
+     * @throws IOException if the operation could not be written to disk, in which case it is dropped. It may still be
+     * attempted after a restart, if the record that drops it does not make it to disk either.
+     */
+    public long submit(byte[] descriptor) throws IOException {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        long sequence;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("The queue is closed");
+            }
+            entry = new Entry(nextId++, descriptor.clone(), 1, now, now);
+            sequence = append(SUBMITTED, entry);
+            pending.put(entry.id, entry);
+        }
+        try {
+            awaitDurable(sequence);
+        } catch (IOException notDurable) {
+            drop(entry, notDurable);
+            throw notDurable;
+        }
+        schedule(entry);
+        return entry.id;
+    }
+
+    /**
+     * @return The number of operations that have not completed or been given up on.
+     */
+    public synchronized int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Stop making attempts and write what is left to disk. Attempts that are running are interrupted, and will be
+     * made again when the journal is opened.
+     * @throws IOException if the journal could not be written to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        workers.shutdownNow();
+        synchronized (this) {
+            journal.force();
+        }
+    }
+
+    private void schedule(final Entry entry) {
+        long delay = Math.max(0, entry.due - System.currentTimeMillis());
+        try {
+            workers.schedule(() -> attempt(entry), delay, MILLISECONDS);
+        } catch (RuntimeException closing) {
+            // Rejected because the queue was closed, the entry is attempted when the journal is opened again
+        }
+    }
+
+    private void attempt(Entry entry) {
+        int attempt = entry.attempt;
+        retrier.listener.onAttempt(attempt);
+        try {
+            operation.execute(entry.descriptor, attempt);
+        } catch (Exception failure) {
+            failed(entry, failure, attempt);
+            return;
+        }
+        retrier.listener.onSuccess(attempt, elapsedNanos(entry));
+        finish(entry);
+    }
+
+    private void failed(Entry entry, Exception failure, int attempt) {
+        long delay = retrier.exceptionMatcher.retry(failure) && attempt < retrier.maxAttempts
+                ? delayAfter(entry, failure, attempt) : -1;
+        if (delay < 0) {
+            retrier.listener.onGiveUp(failure, attempt, elapsedNanos(entry));
+            finish(entry);
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            entry.attempt = attempt + 1;
+            entry.due = System.currentTimeMillis() + delay;
+            try {
+                append(RETRYING, entry);
+            } catch (IOException unrecorded) {
+                // The entry is still in the journal, and is attempted too early if the process dies before it runs
+            }
+        }
+        retrier.listener.onRetry(failure, attempt, delay);
+        schedule(entry);
+    }
+
+    private void finish(Entry entry) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            pending.remove(entry.id);
+            try {
+                append(DONE, entry);
+            } catch (IOException unrecorded) {
+                // Compacting leaves out the entry anyway, this only fails if that failed too
+            }
+        }
+    }
+
+    private synchronized void drop(Entry entry, IOException notDurable) {
+        if (pending.remove(entry.id) == null || closed) {
+            return;
+        }
+        try {
+            append(DONE, entry);
+        } catch (IOException unrecorded) {
+            notDurable.addSuppressed(unrecorded);
+        }
+    }
+
+    private long delayAfter(Entry entry, Exception failure, int attempt) {
+        if (retrier.delayStrategy instanceof ContextualDelayStrategy) {
+            return ((ContextualDelayStrategy) retrier.delayStrategy).delay(attempt, failure,
+                    System.currentTimeMillis() - entry.submitted);
+        }
+        return retrier.delayStrategy.delay(attempt);
+    }
+
+    private static long elapsedNanos(Entry entry) {
+        return MILLISECONDS.toNanos(System.currentTimeMillis() - entry.submitted);
+    }
+
+    /**
+     * @return The number of records appended so far, to wait for with awaitDurable.
+     */
+    private long append(byte type, Entry entry) throws IOException {
+        ByteBuffer record = encode(type, entry);
+        if (journal.remaining() < record.remaining()) {
+            compact();
+            if (journal.remaining() < record.remaining()) {
+                throw new IOException("The journal is full, pending operations need more than " + maxJournalBytes
+                        + " bytes");
+            }
+        }
+        journal.put(record);
+        return ++appended;
+    }
+
+    /**
+     * Wait until the record with sequence is on disk. One thread forces the journal, and every thread waiting for a
+     * record written before it started gets to return. If forcing fails, the thread that tried throws, and the others
+     * take turns trying again.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        while (true) {
+            synchronized (flushLock) {
+                while (flushing && durable < sequence) {
+                    try {
+                        flushLock.wait();
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the journal");
+                    }
+                }
+                if (durable >= sequence) {
+                    return;
+                }
+                flushing = true;
+            }
+            long target = -1;
+            boolean forced = false;
+            try {
+                MappedByteBuffer buffer;
+                synchronized (this) {
+                    buffer = journal;
+                    target = appended;
+                }
+                buffer.force();
+                forced = true;
+            } catch (UncheckedIOException notForced) {
+                throw notForced.getCause();
+            } finally {
+                synchronized (flushLock) {
+                    flushing = false;
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                    }
+                    flushLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the pending entries from the journal, up to the first record that was not completely written.
+     */
+    private void replay() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (records.remaining() >= HEADER) {
+                int length = records.getInt();
+                int checksum = records.getInt();
+                if (length < FIELDS || length > records.remaining()) {
+                    break;
+                }
+                ByteBuffer body = records.slice();
+                body.limit(length);
+                if (checksum(body.duplicate()) != checksum) {
+                    break;
+                }
+                records.position(records.position() + length);
+                byte type = body.get();
+                long id = body.getLong();
+                int attempt = body.getInt();
+                long due = body.getLong();
+                long submitted = body.getLong();
+                if (type == NEXT_ID) {
+                    nextId = Math.max(nextId, id);
+                    continue;
+                }
+                nextId = Math.max(nextId, id + 1);
+                if (type == SUBMITTED) {
+                    byte[] descriptor = new byte[body.remaining()];
+                    body.get(descriptor);
+                    pending.put(id, new Entry(id, descriptor, attempt, due, submitted));
+                } else if (type == RETRYING && pending.containsKey(id)) {
+                    pending.get(id).attempt = attempt;
+                    pending.get(id).due = due;
+                } else if (type == DONE) {
+                    pending.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the pending entries to a new journal and replace the current one with it.
+     */
+    private void compact() throws IOException {
+        Path compacting = file.resolveSibling(file.getFileName() + ".compacting");
+        MappedByteBuffer compacted;
+        try (FileChannel channel = FileChannel.open(compacting, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            compacted = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxJournalBytes);
+        }
+        put(compacted, encode(NEXT_ID, new Entry(nextId, new byte[0], 0, 0, 0)));
+        for (Entry entry : pending.values()) {
+            put(compacted, encode(SUBMITTED, entry));
+        }
+        compacted.force();
+        Files.move(compacting, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        // The rename is only on disk once the directory is, until then a power failure brings back the old journal
+        // and loses every submit that returned after compacting
+        try (FileChannel directory = FileChannel.open(file.toAbsolutePath().getParent(), READ)) {
+            directory.force(true);
+        }
+        journal = compacted;
+    }
+
+    private void put(MappedByteBuffer compacted, ByteBuffer record) throws IOException {
+        if (compacted.remaining() < record.remaining()) {
+            throw new IOException("The journal is full, pending operations need more than " + maxJournalBytes
+                    + " bytes");
+        }
+        compacted.put(record);
+    }
+
+    private static ByteBuffer encode(byte type, Entry entry) {
+        int length = FIELDS + (type == SUBMITTED ? entry.descriptor.length : 0);
+        ByteBuffer record = ByteBuffer.allocate(HEADER + length);
+        record.position(HEADER);
+        record.put(type).putLong(entry.id).putInt(entry.attempt).putLong(entry.due).putLong(entry.submitted);
+        if (type == SUBMITTED) {
+            record.put(entry.descriptor);
+        }
+        record.position(HEADER);
+        int checksum = checksum(record.slice());
+        record.putInt(0, length).putInt(4, checksum);
+        record.position(0);
+        return record;
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static ScheduledThreadPoolExecutor createWorkers(int workers, final String name) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(workers, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "tryagain-" + name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static class Entry {
+        private final long id;
+        private final byte[] descriptor;
+        private final long submitted;
+        // Guarded by the queue
+        private int attempt;
+        private long due;
+
+        private Entry(final long id, final byte[] descriptor, final int attempt, final long due,
+                      final long submitted) {
+            this.id = id;
+            this.descriptor = descriptor;
+            this.attempt = attempt;
+            this.due = due;
+            this.submitted = submitted;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+
+import static com.github.kaaveland.tryagain.impl.CappedExponentialBackoffStrategy.cappedBackoff;
+import static com.github.kaaveland.tryagain.impl.FullJitterStrategy.randomUpTo;
+
+/**
+ * Delays half of base * 2 ^ (attempt - 1), capped at cap, plus a random amount of millis up to the other half.
+ *
+ * Unlike FullJitterStrategy, this always waits a while before retrying.
+ */
+public class EqualJitterStrategy implements DelayStrategy {
+    private final long base;
+    private final long cap;
+
+    public EqualJitterStrategy(final long base, final long cap) {
+        this.base = base;
+        this.cap = cap;
+    }
+
+    @Override
+    public long delay(final int attempt) {
+        long backoff = cappedBackoff(base, 2, cap, attempt);
+        long half = backoff / 2;
+        return half + randomUpTo(backoff - half);
+    }
+}
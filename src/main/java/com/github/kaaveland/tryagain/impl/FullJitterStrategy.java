@@ -0,0 +1,34 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.kaaveland.tryagain.impl.CappedExponentialBackoffStrategy.cappedBackoff;
+
+/**
+ * Delays a random amount of millis between 0 and base * 2 ^ (attempt - 1), capped at cap.
+ *
+ * This spreads out retries from many clients that failed at the same time.
+ */
+public class FullJitterStrategy implements DelayStrategy {
+    private final long base;
+    private final long cap;
+
+    public FullJitterStrategy(final long base, final long cap) {
+        this.base = base;
+        this.cap = cap;
+    }
+
+    @Override
+    public long delay(final int attempt) {
+        return randomUpTo(cappedBackoff(base, 2, cap, attempt));
+    }
+
+    static long randomUpTo(long max) {
+        // max + 1 would overflow for a cap of Long.MAX_VALUE, and clearing the sign bit draws from the same range
+        return max == Long.MAX_VALUE
+                ? ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE
+                : ThreadLocalRandom.current().nextLong(max + 1);
+    }
+}
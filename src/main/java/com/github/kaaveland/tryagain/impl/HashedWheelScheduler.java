@@ -0,0 +1,268 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Cancellable;
+import com.github.kaaveland.tryagain.api.Scheduler;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A Scheduler for very many pending delays, e.g. hundreds of thousands of retries waiting in backoff during an outage.
+ *
+ * Like the hashed timing wheel in Netty, time is split into ticks of tickMillis, and each pending task goes in the slot
+ * of the wheel for the tick it is due, along with the number of turns of the wheel to wait. Scheduling and cancelling
+ * add to a lock-free queue, and a single ticker thread moves tasks into and out of their slots, so both take constant
+ * time no matter how many tasks are pending. Once per tick, the ticker hands the tasks that are due to the executor,
+ * which should not be the ticker itself since attempts may block. Tasks run up to one tick late, so pick a tick that
+ * is small compared to the delays, e.g. 10 milliseconds. A task that throws on an executor that runs it directly is
+ * logged, and the wheel keeps turning.
+ */
+public class HashedWheelScheduler implements Scheduler, Closeable {
+    // Added to the wheel per tick, so that a flood of new tasks can not stop the wheel from turning
+    private static final int MAX_ADDED_PER_TICK = 100000;
+    private static final Cancellable ALREADY_RUNNING = () -> false;
+    private static final System.Logger LOGGER = System.getLogger(HashedWheelScheduler.class.getName());
+
+    private final long tickNanos;
+    private final int mask;
+    private final Slot[] wheel;
+    private final Executor executor;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long started = System.nanoTime();
+    private final Thread ticker;
+    private volatile boolean closed;
+
+    /**
+     * @param tickMillis how often the wheel turns, and how late tasks may run.
+     * @param wheelSize the number of slots in the wheel, rounded up to a power of two.
+     * @param executor runs the tasks that are due.
+     */
+    public HashedWheelScheduler(final long tickMillis, final int wheelSize, final Executor executor) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive, was " + tickMillis);
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30, was " + wheelSize);
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = MILLISECONDS.toNanos(tickMillis);
+        this.mask = size - 1;
+        this.wheel = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Slot();
+        }
+        this.executor = executor;
+        this.ticker = new Thread(this::turn, "tryagain-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Tasks that are due at once are handed to the executor without going through the wheel.
+     */
+    @Override
+    public Cancellable schedule(final Runnable task, final long delayMillis) {
+        if (delayMillis <= 0 && !closed) {
+            executor.execute(task);
+            return ALREADY_RUNNING;
+        }
+        return newTimeout(task, delayMillis);
+    }
+
+    /**
+     * Schedule task, and return a Timeout that can be used to cancel it.
+     * @param task what to run.
+     * @param delayMillis milliseconds to wait before handing task to the executor.
+     * @return A Timeout for task.
+     * @throws RejectedExecutionException if the scheduler is closed.
+     */
+    public Timeout newTimeout(Runnable task, long delayMillis) {
+        if (closed) {
+            throw new RejectedExecutionException("The scheduler is closed");
+        }
+        long deadline = System.nanoTime() - started + MILLISECONDS.toNanos(delayMillis);
+        if (delayMillis > 0 && deadline < 0) {
+            // Overflowed, the task is due so far ahead that it never runs, like in Netty
+            deadline = Long.MAX_VALUE;
+        }
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return The number of tasks that are neither due nor cancelled.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the ticker. Tasks that are not due yet are never run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+
+    private void turn() {
+        long tick = 0;
+        while (!closed) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleepNanos = deadline - (System.nanoTime() - started);
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(NANOSECONDS.toMillis(sleepNanos + 999999));
+                } catch (InterruptedException interrupted) {
+                    continue;
+                }
+            }
+            removeCancelled();
+            addNew(tick);
+            wheel[(int) (tick & mask)].expire(executor, pending);
+            tick++;
+        }
+    }
+
+    private void addNew(long tick) {
+        for (int i = 0; i < MAX_ADDED_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.WAITING) {
+                continue;
+            }
+            long due = Math.max(tick, timeout.deadline / tickNanos);
+            timeout.rounds = (due - tick) / wheel.length;
+            wheel[(int) (due & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        for (Timeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll()) {
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A task waiting in the wheel.
+     */
+    public static final class Timeout implements Cancellable {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelScheduler scheduler;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = WAITING;
+        // Only used by the ticker
+        private long rounds;
+        private Slot slot;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final HashedWheelScheduler scheduler, final Runnable task, final long deadline) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Make sure the task does not run, unless it already has been handed to the executor.
+         * @return true if the task was cancelled by this call.
+         */
+        @Override
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            scheduler.pending.decrementAndGet();
+            scheduler.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    /**
+     * The tasks in one slot of the wheel, as a doubly linked list that only the ticker uses.
+     */
+    private static final class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.slot = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private void expire(Executor executor, AtomicInteger pending) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.rounds > 0) {
+                    timeout.rounds--;
+                } else {
+                    remove(timeout);
+                    if (Timeout.STATE.compareAndSet(timeout, Timeout.WAITING, Timeout.EXPIRED)) {
+                        pending.decrementAndGet();
+                        try {
+                            executor.execute(timeout.task);
+                        } catch (RejectedExecutionException shutdown) {
+                            // The executor is shut down, like with a ScheduledExecutorService the task is dropped
+                        } catch (Throwable failure) {
+                            LOGGER.log(System.Logger.Level.WARNING, "A task on the wheel threw", failure);
+                        }
+                    }
+                }
+                timeout = next;
+            }
+        }
+    }
+}
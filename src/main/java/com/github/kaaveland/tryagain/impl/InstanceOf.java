@@ -2,18 +2,34 @@ package com.github.kaaveland.tryagain.impl;
 
 import com.github.kaaveland.tryagain.api.ExceptionMatcher;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * This will match exceptions that are instances of any of the classes passed in to constructor.
+ *
+ * The decision is remembered for every concrete exception class that has been seen, so after warm-up matching is a
+ * single lookup no matter how many classes are registered.
  */
 public class InstanceOf implements ExceptionMatcher {
     private final List<Class<? extends Exception>> exceptionTypes;
+    private final ClassValue<Boolean> matches = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<? extends Exception> exceptionType : exceptionTypes) {
+                if (exceptionType.isAssignableFrom(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
 
     public InstanceOf(final List<Class<? extends Exception>> exceptionTypes) {
-        this.exceptionTypes = Collections.unmodifiableList(exceptionTypes);
+        // Copied, since changes made by the caller later would not reach the decisions already remembered
+        this.exceptionTypes = Collections.unmodifiableList(new ArrayList<>(exceptionTypes));
     }
 
     @SafeVarargs
@@ -23,12 +39,10 @@ public class InstanceOf implements ExceptionMatcher {
 
     @Override
     public boolean retry(final Exception exception) {
-        for (Class<? extends Exception> exceptionType : exceptionTypes) {
-            if (exceptionType.isInstance(exception)) {
-                return true;
-            }
-        }
-        return false;
+        return matches(exception.getClass());
     }
 
+    boolean matches(Class<?> type) {
+        return matches.get(type);
+    }
 }
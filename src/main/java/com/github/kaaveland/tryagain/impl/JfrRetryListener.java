@@ -0,0 +1,113 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.RetryListener;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A RetryListener that emits JDK Flight Recorder events, so that retries show up in recordings next to the GC pauses,
+ * lock contention and socket reads that caused them.
+ *
+ * Emits tryagain.Retry for every retry and tryagain.GiveUp when a Retrier gives up, both enabled by default, and
+ * tryagain.Attempt for every attempt, which is disabled by default because there is one for every call. Each event
+ * carries the name given to the constructor, to tell call sites apart. When an event is not enabled in any recording,
+ * the listener checks a flag and returns, the event object is not allocated once the JIT has compiled the method.
+ */
+public class JfrRetryListener implements RetryListener {
+    private final String name;
+
+    public JfrRetryListener(final String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void onAttempt(final int attempt) {
+        AttemptEvent event = new AttemptEvent();
+        if (event.isEnabled()) {
+            event.retrier = name;
+            event.attempt = attempt;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRetry(final Exception exception, final int attempt, final long delayMillis) {
+        RetryEvent event = new RetryEvent();
+        if (event.isEnabled()) {
+            event.retrier = name;
+            event.exceptionClass = exception == null ? null : exception.getClass();
+            event.attempt = attempt;
+            event.delay = delayMillis;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+        GiveUpEvent event = new GiveUpEvent();
+        if (event.isEnabled()) {
+            event.retrier = name;
+            event.exceptionClass = exception == null ? null : exception.getClass();
+            event.attempt = attempt;
+            event.elapsed = elapsedNanos;
+            event.commit();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    @Name("tryagain.Attempt")
+    @Label("Attempt")
+    @Description("A Retrier is about to make an attempt")
+    @Category("tryagain")
+    @Enabled(false)
+    static class AttemptEvent extends Event {
+        @Label("Retrier")
+        String retrier;
+        @Label("Attempt")
+        int attempt;
+    }
+
+    @Name("tryagain.Retry")
+    @Label("Retry")
+    @Description("An attempt failed and is about to be retried")
+    @Category("tryagain")
+    static class RetryEvent extends Event {
+        @Label("Retrier")
+        String retrier;
+        @Label("Exception Class")
+        @Description("What the attempt failed with, or null if its result is retried")
+        Class<?> exceptionClass;
+        @Label("Attempt")
+        @Description("The attempt that failed")
+        int attempt;
+        @Label("Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long delay;
+    }
+
+    @Name("tryagain.GiveUp")
+    @Label("Give Up")
+    @Description("A Retrier gave up")
+    @Category("tryagain")
+    static class GiveUpEvent extends Event {
+        @Label("Retrier")
+        String retrier;
+        @Label("Exception Class")
+        @Description("What the call fails with, or null if it returns the last result")
+        Class<?> exceptionClass;
+        @Label("Attempt")
+        @Description("The last attempt made")
+        int attempt;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
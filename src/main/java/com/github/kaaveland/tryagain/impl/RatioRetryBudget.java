@@ -0,0 +1,96 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Clock;
+import com.github.kaaveland.tryagain.api.RetryBudget;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allows retries as long as they do not exceed a ratio of the first attempts made within a sliding time window.
+ *
+ * The window is a ring of buckets counting with LongAdder, which stripes updates over cells to scale with the
+ * number of cores. Recording a first attempt is a single increment. The budget is approximate: concurrent retries
+ * may exceed it by a few, and counts racing with the reuse of a bucket may be lost.
+ */
+public class RatioRetryBudget implements RetryBudget {
+    private static final int BUCKETS = 10;
+
+    private final double ratio;
+    private final long minRetries;
+    private final long bucketMillis;
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+    private final Clock clock;
+    private final long origin;
+
+    /**
+     * @param ratio retries may not exceed this fraction of first attempts, e.g. 0.1 for 10%.
+     * @param minRetries retries that are always allowed within a window, so that low traffic can still retry.
+     * @param windowMillis the length of the sliding window.
+     */
+    public RatioRetryBudget(final double ratio, final long minRetries, final long windowMillis) {
+        this(ratio, minRetries, windowMillis, SystemClock.INSTANCE);
+    }
+
+    /**
+     * @param ratio retries may not exceed this fraction of first attempts, e.g. 0.1 for 10%.
+     * @param minRetries retries that are always allowed within a window, so that low traffic can still retry.
+     * @param windowMillis the length of the sliding window.
+     * @param clock where to read the time, e.g. a VirtualClock in tests.
+     */
+    public RatioRetryBudget(final double ratio, final long minRetries, final long windowMillis, final Clock clock) {
+        this.clock = clock;
+        this.origin = clock.nanoTime();
+        this.ratio = ratio;
+        this.minRetries = minRetries;
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    @Override
+    public void recordAttempt() {
+        bucket(now()).attempts.increment();
+    }
+
+    @Override
+    public boolean tryRetry() {
+        long epoch = now() / bucketMillis;
+        long attempts = 0;
+        long retries = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch.get() > epoch - BUCKETS) {
+                attempts += bucket.attempts.sum();
+                retries += bucket.retries.sum();
+            }
+        }
+        if (retries >= minRetries + ratio * attempts) {
+            return false;
+        }
+        bucket(epoch * bucketMillis).retries.increment();
+        return true;
+    }
+
+    private Bucket bucket(long now) {
+        long epoch = now / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % BUCKETS)];
+        long seen = bucket.epoch.get();
+        if (seen != epoch && bucket.epoch.compareAndSet(seen, epoch)) {
+            bucket.attempts.reset();
+            bucket.retries.reset();
+        }
+        return bucket;
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - origin);
+    }
+
+    private static class Bucket {
+        private final AtomicLong epoch = new AtomicLong(-BUCKETS);
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+    }
+}
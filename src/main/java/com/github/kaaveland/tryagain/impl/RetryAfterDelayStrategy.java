@@ -0,0 +1,45 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ContextualDelayStrategy;
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+import com.github.kaaveland.tryagain.api.RetryAfter;
+
+/**
+ * Waits as long as the exception asks for when it, or one of its causes, implements RetryAfter, and falls back to
+ * another DelayStrategy when there is no hint.
+ *
+ * Hints are capped at maxDelay, so that a misbehaving server can not stall the caller indefinitely.
+ */
+public class RetryAfterDelayStrategy implements ContextualDelayStrategy {
+    private final DelayStrategy fallback;
+    private final long maxDelay;
+
+    /**
+     * @param fallback the delay strategy to use when the exception has no retry-after hint.
+     * @param maxDelay the longest delay to accept from a hint, in milliseconds.
+     */
+    public RetryAfterDelayStrategy(final DelayStrategy fallback, final long maxDelay) {
+        this.fallback = fallback;
+        this.maxDelay = maxDelay;
+    }
+
+    public RetryAfterDelayStrategy(final DelayStrategy fallback) {
+        this(fallback, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long delay(final int attempt, final Exception exception, final long elapsedMillis) {
+        long retryAfter = retryAfterMillis(exception);
+        if (retryAfter >= 0) {
+            return Math.min(retryAfter, maxDelay);
+        }
+        return fallback instanceof ContextualDelayStrategy
+                ? ((ContextualDelayStrategy) fallback).delay(attempt, exception, elapsedMillis)
+                : fallback.delay(attempt);
+    }
+
+    private static long retryAfterMillis(Throwable exception) {
+        Throwable hint = CauseChain.find(exception, cause -> cause instanceof RetryAfter);
+        return hint == null ? -1 : ((RetryAfter) hint).retryAfterMillis();
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.RetryListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A RetryListener that counts what a Retrier does, without any dependencies. Create one per Retrier you want to
+ * tell apart, and read the counters from your metrics system of choice.
+ *
+ * Counters are LongAdders and call latencies go into a LatencyHistogram, so recording never blocks and does not
+ * allocate, except the first time an exception class is retried.
+ */
+public class RetryMetrics implements RetryListener {
+    private final String name;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder successesAfterRetry = new LongAdder();
+    private final LongAdder givenUp = new LongAdder();
+    private final LongAdder delayMillis = new LongAdder();
+    private final ConcurrentMap<Class<?>, LongAdder> retriesByException = new ConcurrentHashMap<>();
+    private final LatencyHistogram latencyNanos = new LatencyHistogram();
+
+    public RetryMetrics(final String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void onAttempt(final int attempt) {
+        attempts.increment();
+    }
+
+    @Override
+    public void onRetry(final Exception exception, final int attempt, final long delayMillis) {
+        retries.increment();
+        this.delayMillis.add(delayMillis);
+        if (exception == null) {
+            return;
+        }
+        Class<?> type = exception.getClass();
+        LongAdder counter = retriesByException.get(type);
+        if (counter == null) {
+            counter = retriesByException.computeIfAbsent(type, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void onSuccess(final int attempt, final long elapsedNanos) {
+        successes.increment();
+        if (attempt > 1) {
+            successesAfterRetry.increment();
+        }
+        latencyNanos.record(elapsedNanos);
+    }
+
+    @Override
+    public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+        givenUp.increment();
+        latencyNanos.record(elapsedNanos);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of attempts made, first attempts and retries.
+     */
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long successes() {
+        return successes.sum();
+    }
+
+    /**
+     * @return the number of calls that succeeded, but needed at least one retry to do so.
+     */
+    public long successesAfterRetry() {
+        return successesAfterRetry.sum();
+    }
+
+    public long givenUp() {
+        return givenUp.sum();
+    }
+
+    /**
+     * @return the total amount of milliseconds spent waiting between attempts.
+     */
+    public long delayMillis() {
+        return delayMillis.sum();
+    }
+
+    /**
+     * @return how many retries each exception class has caused.
+     */
+    public Map<Class<?>, Long> retriesByException() {
+        Map<Class<?>, Long> snapshot = new HashMap<>();
+        for (Map.Entry<Class<?>, LongAdder> entry : retriesByException.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return the latencies of calls that succeeded or gave up, in nanoseconds.
+     */
+    public LatencyHistogram latencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{name=" + name + ", attempts=" + attempts() + ", retries=" + retries()
+                + ", successes=" + successes() + ", successesAfterRetry=" + successesAfterRetry()
+                + ", givenUp=" + givenUp() + ", delayMillis=" + delayMillis()
+                + ", p99LatencyNanos=" + latencyNanos.percentile(99) + "}";
+    }
+}
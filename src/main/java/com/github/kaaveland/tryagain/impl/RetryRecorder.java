@@ -0,0 +1,157 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.RetryListener;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A RetryListener that keeps the most recent retries and give ups of a Retrier in a fixed size ring buffer, to be
+ * dumped when something looks wrong, e.g. from a debug endpoint.
+ *
+ * Recording claims a slot with a counter and writes into preallocated arrays, so it never blocks and does not
+ * allocate. Only the class of the exception is kept, not the exception itself, so the buffer does not keep requests
+ * or responses reachable. When the buffer wraps around while a slot is still being written, the newer entry is
+ * dropped and counted, since it is better to lose an entry than to keep a torn one.
+ */
+public class RetryRecorder implements RetryListener {
+    private static final long EMPTY = -2;
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    // The sequence number of the entry in each slot, or EMPTY or WRITING
+    private final AtomicLongArray sequences;
+    private final long[] timeMillis;
+    private final boolean[] gaveUp;
+    private final int[] attempts;
+    private final long[] millis;
+    private final Class<?>[] exceptionClasses;
+
+    /**
+     * @param capacity the number of entries to keep, rounded up to a power of two.
+     */
+    public RetryRecorder(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30, was " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, EMPTY);
+        }
+        timeMillis = new long[size];
+        gaveUp = new boolean[size];
+        attempts = new int[size];
+        millis = new long[size];
+        exceptionClasses = new Class<?>[size];
+    }
+
+    @Override
+    public void onRetry(final Exception exception, final int attempt, final long delayMillis) {
+        record(false, exception, attempt, delayMillis);
+    }
+
+    @Override
+    public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+        record(true, exception, attempt, elapsedNanos / 1000000);
+    }
+
+    private void record(boolean gaveUp, Throwable exception, int attempt, long millis) {
+        long sequence = next.getAndIncrement();
+        int slot = (int) sequence & mask;
+        long previous = sequences.get(slot);
+        if (previous == WRITING || !sequences.compareAndSet(slot, previous, WRITING)) {
+            dropped.increment();
+            return;
+        }
+        this.timeMillis[slot] = System.currentTimeMillis();
+        this.gaveUp[slot] = gaveUp;
+        this.attempts[slot] = attempt;
+        this.millis[slot] = millis;
+        this.exceptionClasses[slot] = exception == null ? null : exception.getClass();
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * @return The entries in the buffer, oldest first.
+     */
+    public List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>(mask + 1);
+        for (int slot = 0; slot <= mask; slot++) {
+            long before = sequences.get(slot);
+            if (before < 0) {
+                continue;
+            }
+            Entry entry = new Entry(before, timeMillis[slot], gaveUp[slot], attempts[slot], millis[slot],
+                    exceptionClasses[slot]);
+            // Make sure the slot is read again after the fields, and skip the entry if it was overwritten meanwhile
+            VarHandle.acquireFence();
+            if (sequences.get(slot) == before) {
+                entries.add(entry);
+            }
+        }
+        entries.sort((left, right) -> Long.compare(left.sequence, right.sequence));
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return The number of entries that were dropped because their slot was being written.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder dump = new StringBuilder();
+        for (Entry entry : snapshot()) {
+            dump.append(entry).append('\n');
+        }
+        return dump.toString();
+    }
+
+    /**
+     * One retry or give up, as it was recorded.
+     */
+    public static class Entry {
+        private final long sequence;
+        public final long timeMillis;
+        public final boolean gaveUp;
+        public final int attempt;
+        /**
+         * The delay before the next attempt for a retry, or the time spent on the whole call for a give up.
+         */
+        public final long millis;
+        /**
+         * What the attempt failed with, or null if it returned a result that should be retried.
+         */
+        public final Class<?> exceptionClass;
+
+        private Entry(final long sequence, final long timeMillis, final boolean gaveUp, final int attempt,
+                      final long millis, final Class<?> exceptionClass) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.gaveUp = gaveUp;
+            this.attempt = attempt;
+            this.millis = millis;
+            this.exceptionClass = exceptionClass;
+        }
+
+        @Override
+        public String toString() {
+            String exception = exceptionClass == null ? "result" : exceptionClass.getName();
+            return Instant.ofEpochMilli(timeMillis) + (gaveUp
+                    ? " gave up after attempt " + attempt + " and " + millis + "ms on " + exception
+                    : " retrying attempt " + attempt + " in " + millis + "ms on " + exception);
+        }
+    }
+}
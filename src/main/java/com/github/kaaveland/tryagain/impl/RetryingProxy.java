@@ -0,0 +1,140 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The InvocationHandler behind TryAgain.proxy, which calls the target with the Retrier chosen for each method.
+ *
+ * Everything is looked up when the proxy is created: each method of the interface gets a MethodHandle bound to the
+ * target and its Retrier, so a call costs an identity map lookup and the Retrier, like a hand-written wrapper does.
+ * equals is identity on the proxy, hashCode and toString are passed to the target without retrying.
+ */
+public class RetryingProxy implements InvocationHandler {
+    private static final MethodType INVOKER = MethodType.methodType(Object.class, Object[].class);
+
+    private final Object target;
+    private final Map<Method, Invoker> invokers = new HashMap<>();
+    // The Method objects of the proxy class never change, so they are looked up by identity after the first call
+    private volatile Map<Method, Invoker> byIdentity = new IdentityHashMap<>();
+
+    private RetryingProxy(final Class<?> type, final Object target, final Retrier retrier,
+                          final Map<String, Retrier> retriersByMethod) {
+        this.target = target;
+        Set<String> unknown = new HashSet<>(retriersByMethod.keySet());
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                String name = method.getName();
+                unknown.remove(name);
+                Retrier chosen = retriersByMethod.containsKey(name) ? retriersByMethod.get(name) : retrier;
+                invokers.put(method, new Invoker(bind(method, target), chosen));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no methods named " + unknown);
+        }
+    }
+
+    /**
+     * @param type the interface to implement.
+     * @param target what to call.
+     * @param retrier the Retrier for methods that are not in retriersByMethod.
+     * @param retriersByMethod Retriers for methods with the given names, null to call the method once.
+     * @param <I> The type of the interface
+     * @return A proxy implementing type.
+     */
+    public static <I> I create(Class<I> type, I target, Retrier retrier, Map<String, Retrier> retriersByMethod) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " is not an interface");
+        }
+        if (target == null) {
+            throw new NullPointerException("target");
+        }
+        RetryingProxy handler = new RetryingProxy(type, target, retrier, retriersByMethod);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        Invoker invoker = byIdentity.get(method);
+        if (invoker == null) {
+            invoker = resolve(method);
+        }
+        if (invoker != null) {
+            return invoker.retrier == null ? invoker.invoke(args) : invoker.retrier.execute(invoker.bind(args));
+        }
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return target.hashCode();
+            default:
+                return target.toString();
+        }
+    }
+
+    private synchronized Invoker resolve(Method method) {
+        Invoker invoker = invokers.get(method);
+        if (invoker != null) {
+            Map<Method, Invoker> copy = new IdentityHashMap<>(byIdentity);
+            copy.put(method, invoker);
+            byIdentity = copy;
+        }
+        return invoker;
+    }
+
+    private static MethodHandle bind(Method method, Object target) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER);
+        } catch (IllegalAccessException | RuntimeException inaccessible) {
+            throw new IllegalArgumentException("Can not call " + method, inaccessible);
+        }
+    }
+
+    private static class Invoker {
+        private final MethodHandle handle;
+        private final Retrier retrier;
+
+        private Invoker(final MethodHandle handle, final Retrier retrier) {
+            this.handle = handle;
+            this.retrier = retrier;
+        }
+
+        private Object invoke(Object[] args) throws Exception {
+            try {
+                return (Object) handle.invokeExact(args);
+            } catch (Exception | Error failure) {
+                throw failure;
+            } catch (Throwable failure) {
+                throw new UndeclaredThrowableException(failure);
+            }
+        }
+
+        private Retriable<Object> bind(final Object[] args) {
+            return new Retriable<Object>() {
+                @Override
+                public Object execute(final int attempt) throws Exception {
+                    return invoke(args);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ContextualDelayStrategy;
+import com.github.kaaveland.tryagain.api.ResumableSource;
+import com.github.kaaveland.tryagain.api.Retrier;
+
+import java.util.concurrent.Flow;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A Flow.Publisher that opens a ResumableSource again from the last delivered element when it fails with an
+ * exception that the Retrier would retry.
+ *
+ * Delays are scheduled on the Retrier's scheduler, so no thread is blocked between attempts. Demand from the
+ * subscriber that has not been met yet is requested again from each new subscription to the source. The attempt
+ * number starts over from 1 whenever an element is delivered, so maxAttempts limits the attempts in a row that make
+ * no progress. The retry budget and listener of the Retrier are used, its timeouts, circuit breaker and hedging are
+ * not.
+ *
+ * @param <T> The type of the elements
+ * @param <R> The type of the token to resume from
+ */
+public class RetryingPublisher<T, R> implements Flow.Publisher<T> {
+    public final Retrier retrier;
+    private final ResumableSource<T, R> source;
+
+    public RetryingPublisher(final Retrier retrier, final ResumableSource<T, R> source) {
+        this.retrier = retrier;
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        retrier.retryBudget.recordAttempt();
+        subscription.open(1);
+    }
+
+    /**
+     * The subscription handed to one subscriber, which lives across all the subscriptions to the source.
+     */
+    private class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> downstream;
+        private final long started = retrier.clock.nanoTime();
+        // Guarded by this
+        private long requested;
+        private Flow.Subscription upstream;
+        // Written while the source is delivering, one attempt at a time
+        private volatile R resumeToken;
+        private volatile boolean progressed;
+        private volatile boolean cancelled;
+
+        private Subscription(final Flow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                downstream.onError(new IllegalArgumentException("Requested " + n + " elements, must be positive"));
+                return;
+            }
+            Flow.Subscription current;
+            synchronized (this) {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                current = upstream;
+            }
+            if (current != null) {
+                current.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription current;
+            synchronized (this) {
+                current = upstream;
+                upstream = null;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private void open(int attempt) {
+            if (cancelled) {
+                return;
+            }
+            retrier.listener.onAttempt(attempt);
+            progressed = false;
+            Flow.Publisher<T> publisher;
+            try {
+                publisher = source.open(resumeToken, attempt);
+            } catch (Exception exception) {
+                failed(exception, attempt);
+                return;
+            }
+            publisher.subscribe(new Attempt(attempt));
+        }
+
+        private void subscribed(Flow.Subscription subscription) {
+            long demand;
+            synchronized (this) {
+                upstream = subscription;
+                demand = requested;
+            }
+            if (cancelled) {
+                subscription.cancel();
+            } else if (demand > 0) {
+                subscription.request(demand);
+            }
+        }
+
+        private void next(T element) {
+            synchronized (this) {
+                if (requested != Long.MAX_VALUE) {
+                    requested--;
+                }
+            }
+            resumeToken = source.resumeToken(element);
+            progressed = true;
+            downstream.onNext(element);
+        }
+
+        private void completed(int attempt) {
+            retrier.listener.onSuccess(attempt, retrier.clock.nanoTime() - started);
+            downstream.onComplete();
+        }
+
+        private void failed(Throwable failure, int attempt) {
+            synchronized (this) {
+                upstream = null;
+            }
+            if (cancelled) {
+                return;
+            }
+            if (progressed) {
+                attempt = 1;
+            }
+            long delay = failure instanceof Exception ? delayAfter((Exception) failure, attempt) : -1;
+            if (delay < 0) {
+                retrier.listener.onGiveUp(failure, attempt, retrier.clock.nanoTime() - started);
+                downstream.onError(failure);
+                return;
+            }
+            retrier.listener.onRetry((Exception) failure, attempt, delay);
+            final int next = attempt + 1;
+            try {
+                retrier.scheduler.schedule(() -> open(next), delay);
+            } catch (RuntimeException rejected) {
+                downstream.onError(rejected);
+            }
+        }
+
+        /**
+         * @return The delay before the next attempt, or -1 to give up.
+         */
+        private long delayAfter(Exception exception, int attempt) {
+            if (!retrier.exceptionMatcher.retry(exception) || attempt >= retrier.maxAttempts
+                    || !retrier.retryBudget.tryRetry()) {
+                return -1;
+            }
+            if (retrier.delayStrategy instanceof ContextualDelayStrategy) {
+                return ((ContextualDelayStrategy) retrier.delayStrategy).delay(attempt, exception,
+                        NANOSECONDS.toMillis(retrier.clock.nanoTime() - started));
+            }
+            return retrier.delayStrategy.delay(attempt);
+        }
+
+        /**
+         * Subscribes to the source for one attempt, and ignores anything it sends after the attempt is over.
+         */
+        private class Attempt implements Flow.Subscriber<T> {
+            private final int attempt;
+            private boolean done;
+
+            private Attempt(final int attempt) {
+                this.attempt = attempt;
+            }
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscribed(subscription);
+            }
+
+            @Override
+            public void onNext(final T element) {
+                if (!done && !cancelled) {
+                    next(element);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable failure) {
+                if (!done) {
+                    done = true;
+                    failed(failure, attempt);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (!done && !cancelled) {
+                    done = true;
+                    completed(attempt);
+                }
+            }
+        }
+    }
+}
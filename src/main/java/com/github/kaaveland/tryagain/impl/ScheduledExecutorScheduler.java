@@ -0,0 +1,70 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Cancellable;
+import com.github.kaaveland.tryagain.api.Scheduler;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Schedules attempts on a ScheduledExecutorService. Blocking Retriables are handed on to the executor of the Retrier,
+ * so the threads of the ScheduledExecutorService only wait out delays and timeouts.
+ */
+public class ScheduledExecutorScheduler implements Scheduler {
+    private final ScheduledExecutorService executor;
+
+    public ScheduledExecutorScheduler(final ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Cancellable schedule(final Runnable task, final long delayMillis) {
+        final ScheduledFuture<?> scheduled = executor.schedule(task, delayMillis, MILLISECONDS);
+        return () -> scheduled.cancel(false);
+    }
+
+    /**
+     * @return A Scheduler backed by a lazily created pool of daemon threads, one per available processor and at least
+     * two.
+     */
+    public static Scheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @return A Scheduler backed by a lazily created daemon thread of its own, used by Retrier for the timeouts of
+     * attempts when no other scheduler is given, so that they fire even while the shared threads are busy.
+     */
+    public static Scheduler timer() {
+        return Timer.INSTANCE;
+    }
+
+    private static class Shared {
+        private static final Scheduler INSTANCE = new ScheduledExecutorScheduler(
+                createExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()), "tryagain-scheduler-"));
+    }
+
+    private static class Timer {
+        private static final Scheduler INSTANCE = new ScheduledExecutorScheduler(createExecutor(1, "tryagain-timer-"));
+    }
+
+    private static ScheduledExecutorService createExecutor(int threads, final String name) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, name + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Timeouts are cancelled as soon as their attempt finishes, and should not linger in the queue
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Lets concurrent calls with the same key share one execution of the Retrier, so that hundreds of threads fetching
+ * the same thing during an outage make one set of attempts between them instead of hundreds.
+ *
+ * The first call for a key runs the operation, and calls for that key made while it is running wait for its result
+ * or exception instead of running their own. The key is forgotten as soon as the execution completes, so nothing is
+ * cached. Only use it for idempotent operations where any caller's operation is as good as another's.
+ *
+ * @param <K> The type of the keys
+ */
+public class SingleFlight<K> {
+    public final Retrier retrier;
+    private final ConcurrentMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(final Retrier retrier) {
+        this.retrier = retrier;
+    }
+
+    /**
+     * Execute operation with the Retrier, unless an execution for key is already running, in which case wait for it.
+     * @param key
+     * @param operation
+     * @param <T> The type of the Retriable
+     * @return The result of the execution for key.
+     * @throws Exception the exception that ended the execution for key, shared by every caller that waited for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key, Retriable<T> operation) throws Exception {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            T result = retrier.execute(operation);
+            flight.complete(result);
+            return result;
+        } catch (Exception | Error failure) {
+            flight.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Execute operation with Retrier.executeAsync, unless an execution for key is already running, in which case
+     * return a future for that.
+     * @param key
+     * @param operation
+     * @param <T> The type of the Retriable
+     * @return A future that completes with the result of the execution for key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(final K key, Retriable<T> operation) {
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            // A dependent future, so that callers can not complete or cancel the shared one
+            return running.thenApply(value -> (T) value);
+        }
+        CompletableFuture<T> execution;
+        try {
+            execution = retrier.executeAsync(operation);
+        } catch (RuntimeException | Error failure) {
+            // Thrown before the first attempt, e.g. by the listener, so the execution never completes the flight
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(failure);
+            return flight.thenApply(value -> (T) value);
+        }
+        execution.whenComplete((value, failure) -> {
+            // Removed first, so that calls made from callbacks start a new execution
+            inFlight.remove(key, flight);
+            if (failure == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(failure);
+            }
+        });
+        return flight.thenApply(value -> (T) value);
+    }
+
+    /**
+     * @return The number of keys with an execution running.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException failed) {
+            Throwable cause = failed.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.CircuitBreaker;
+import com.github.kaaveland.tryagain.api.Clock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CircuitBreaker that opens when the failure rate over the last windowSize attempts reaches a threshold.
+ *
+ * While open, every call is rejected until openMillis have passed. Then the breaker goes half open and lets
+ * halfOpenAttempts through: if they all succeed, the breaker closes, and if any of them fails it opens again. Trial
+ * attempts that never report back, e.g. because their call was abandoned, would leave it half open for good, so it
+ * opens again when openMillis pass without a verdict. Trial permits that Retrier got but did not use, e.g. because the
+ * retry budget was empty, are handed back.
+ *
+ * Outcomes are kept in a ring buffer and state changes are done with compare-and-set, so there are no locks and no
+ * allocation when recording outcomes.
+ */
+public class SlidingWindowCircuitBreaker implements CircuitBreaker {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+    // Between OPEN and HALF_OPEN, while the thread that won the transition resets the trial
+    private static final int STARTING_TRIAL = 3;
+
+    private final int windowSize;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenAttempts;
+    private final Clock clock;
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+    private volatile long openedAt;
+    private volatile long halfOpenedAt;
+
+    /**
+     * @param windowSize the number of most recent attempts to compute the failure rate from.
+     * @param failureRateThreshold open the circuit when this fraction of the window failed, e.g. 0.5.
+     * @param openMillis how long to reject calls before letting trial attempts through.
+     * @param halfOpenAttempts the number of trial attempts that must succeed to close the circuit again.
+     */
+    public SlidingWindowCircuitBreaker(final int windowSize, final double failureRateThreshold, final long openMillis,
+                                       final int halfOpenAttempts) {
+        this(windowSize, failureRateThreshold, openMillis, halfOpenAttempts, SystemClock.INSTANCE);
+    }
+
+    /**
+     * @param windowSize the number of most recent attempts to compute the failure rate from.
+     * @param failureRateThreshold open the circuit when this fraction of the window failed, e.g. 0.5.
+     * @param openMillis how long to reject calls before letting trial attempts through.
+     * @param halfOpenAttempts the number of trial attempts that must succeed to close the circuit again.
+     * @param clock where to read the time, e.g. a VirtualClock in tests.
+     */
+    public SlidingWindowCircuitBreaker(final int windowSize, final double failureRateThreshold, final long openMillis,
+                                       final int halfOpenAttempts, final Clock clock) {
+        this.clock = clock;
+        this.windowSize = windowSize;
+        this.failureThreshold = Math.max(1, (int) Math.ceil(windowSize * failureRateThreshold));
+        this.openNanos = openMillis * 1000000L;
+        this.halfOpenAttempts = halfOpenAttempts;
+        this.outcomes = new AtomicIntegerArray(windowSize);
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN) {
+            if (clock.nanoTime() - openedAt < openNanos || !state.compareAndSet(OPEN, STARTING_TRIAL)) {
+                return false;
+            }
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(halfOpenAttempts);
+            halfOpenedAt = clock.nanoTime();
+            state.set(HALF_OPEN);
+            current = HALF_OPEN;
+        }
+        if (current != HALF_OPEN) {
+            return false;
+        }
+        if (halfOpenPermits.getAndUpdate(permits -> permits > 0 ? permits - 1 : 0) > 0) {
+            return true;
+        }
+        if (clock.nanoTime() - halfOpenedAt >= openNanos) {
+            open(HALF_OPEN);
+        }
+        return false;
+    }
+
+    @Override
+    public void onSuccess() {
+        int current = state.get();
+        if (current == CLOSED) {
+            record(0);
+        } else if (current == HALF_OPEN && halfOpenSuccesses.incrementAndGet() >= halfOpenAttempts) {
+            close();
+        }
+    }
+
+    @Override
+    public void onFailure() {
+        int current = state.get();
+        if (current == CLOSED) {
+            if (record(1) >= failureThreshold) {
+                open(CLOSED);
+            }
+        } else if (current == HALF_OPEN) {
+            open(HALF_OPEN);
+        }
+    }
+
+    /**
+     * Hands an unused trial permit back while half open. Does nothing in the other states, which either do not limit
+     * permits or start a new trial with all of them.
+     */
+    @Override
+    public void releasePermission() {
+        if (state.get() == HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return true if the circuit is open or half open, and calls are being rejected or limited.
+     */
+    public boolean isOpen() {
+        return state.get() != CLOSED;
+    }
+
+    private int record(int outcome) {
+        long index = recorded.getAndIncrement();
+        int previous = outcomes.getAndSet((int) (index % windowSize), outcome);
+        int failed = outcome == previous ? failures.get() : failures.addAndGet(outcome - previous);
+        return index + 1 >= windowSize ? failed : 0;
+    }
+
+    private void open(int from) {
+        // Written before the transition, so nobody sees the open state with a stale timestamp
+        openedAt = clock.nanoTime();
+        state.compareAndSet(from, OPEN);
+    }
+
+    private void close() {
+        // Nothing records into the window while half open, so it can be cleared before closing
+        for (int i = 0; i < windowSize; i++) {
+            outcomes.set(i, 0);
+        }
+        failures.set(0);
+        recorded.set(0);
+        state.compareAndSet(HALF_OPEN, CLOSED);
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.CircuitBreakerOpenException;
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+import com.github.kaaveland.tryagain.api.RetriesExhaustedException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Remembers the last successful result of the Retrier for each key, and serves it when a later execution for that key
+ * can not produce a new one, so that reads keep working through an outage of the service behind them.
+ *
+ * A remembered result is served when the Retrier gives up on an exception it would have retried, or when it is
+ * stopped by its retry budget, circuit breaker or concurrency limiter. Exceptions the Retrier does not retry are
+ * thrown as usual, since they are usually answers rather than outages. Results older than ttlMillis are never served.
+ * When more than maxSize keys are remembered, the least recently used is forgotten.
+ *
+ * With a latency budget, a call that has a result to fall back on waits at most that long for the Retrier, and gets
+ * the remembered result if it takes longer. The execution keeps running in the background and remembers its result.
+ * With refreshAfterMillis, results older than that are served at once while a new one is fetched in the background.
+ * Background executions for a key are shared, so there is never more than one of them running. Ages are measured
+ * with the Clock of the Retrier.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the results
+ */
+public class StaleCache<K, V> {
+    public final Retrier retrier;
+    private final long ttlNanos;
+    private final long latencyBudgetMillis;
+    private final long refreshAfterNanos;
+    // Guarded by itself
+    private final Map<K, Remembered<V>> entries;
+    private final ConcurrentMap<K, CompletableFuture<V>> refreshing = new ConcurrentHashMap<>();
+
+    /**
+     * @param retrier the Retrier to execute operations with.
+     * @param maxSize the most keys to remember results for.
+     * @param ttlMillis how long a result may be served after it was produced.
+     */
+    public StaleCache(final Retrier retrier, final int maxSize, final long ttlMillis) {
+        this(retrier, maxSize, ttlMillis, 0, 0);
+    }
+
+    /**
+     * @param retrier the Retrier to execute operations with.
+     * @param maxSize the most keys to remember results for.
+     * @param ttlMillis how long a result may be served after it was produced.
+     * @param latencyBudgetMillis how long to wait for the Retrier before serving a remembered result, or 0 to wait
+     *                            until it is done.
+     * @param refreshAfterMillis the age at which a result is served while fetching a new one in the background, or 0
+     *                           to never do that.
+     */
+    public StaleCache(final Retrier retrier, final int maxSize, final long ttlMillis, final long latencyBudgetMillis,
+                      final long refreshAfterMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+        }
+        this.retrier = retrier;
+        this.ttlNanos = MILLISECONDS.toNanos(ttlMillis);
+        this.latencyBudgetMillis = latencyBudgetMillis;
+        this.refreshAfterNanos = MILLISECONDS.toNanos(refreshAfterMillis);
+        this.entries = new LinkedHashMap<K, Remembered<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Remembered<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Execute operation with the Retrier and remember the result for key, or serve the remembered result for key if
+     * the Retrier can not produce one.
+     * @param key
+     * @param operation
+     * @return The result of operation, or the last one remembered for key.
+     * @throws Exception the exception the Retrier ended with, when there is no result to serve instead.
+     */
+    public V execute(K key, Retriable<V> operation) throws Exception {
+        Remembered<V> cached = lookup(key);
+        if (cached == null) {
+            return executeAndRemember(key, operation, null);
+        }
+        if (refreshAfterNanos > 0 && retrier.clock.nanoTime() - cached.produced >= refreshAfterNanos) {
+            refresh(key, operation);
+            return cached.value;
+        }
+        if (latencyBudgetMillis > 0) {
+            return await(refresh(key, operation), cached);
+        }
+        return executeAndRemember(key, operation, cached);
+    }
+
+    /**
+     * @param key
+     * @return The result remembered for key, or null if there is none that is young enough to serve.
+     */
+    public V get(K key) {
+        Remembered<V> cached = lookup(key);
+        return cached == null ? null : cached.value;
+    }
+
+    /**
+     * @return The number of keys with a remembered result, including ones that are too old to serve.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private V executeAndRemember(K key, Retriable<V> operation, Remembered<V> cached) throws Exception {
+        V result;
+        try {
+            result = retrier.execute(operation);
+        } catch (Exception failure) {
+            if (cached != null && unavailable(failure)) {
+                return cached.value;
+            }
+            throw failure;
+        }
+        remember(key, result);
+        return result;
+    }
+
+    private CompletableFuture<V> refresh(final K key, Retriable<V> operation) {
+        final CompletableFuture<V> refresh = new CompletableFuture<>();
+        CompletableFuture<V> running = refreshing.putIfAbsent(key, refresh);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<V> execution;
+        try {
+            execution = retrier.executeAsync(operation);
+        } catch (RuntimeException | Error failure) {
+            // Thrown before the first attempt, e.g. by the listener, so the execution never completes the refresh
+            refreshing.remove(key, refresh);
+            refresh.completeExceptionally(failure);
+            return refresh;
+        }
+        execution.whenComplete((value, failure) -> {
+            refreshing.remove(key, refresh);
+            if (failure == null) {
+                remember(key, value);
+                refresh.complete(value);
+            } else {
+                refresh.completeExceptionally(failure);
+            }
+        });
+        return refresh;
+    }
+
+    private V await(CompletableFuture<V> refresh, Remembered<V> cached) throws Exception {
+        try {
+            return refresh.get(latencyBudgetMillis, MILLISECONDS);
+        } catch (TimeoutException slow) {
+            return cached.value;
+        } catch (ExecutionException failed) {
+            Throwable cause = failed.getCause();
+            if (cause instanceof Exception && unavailable((Exception) cause)) {
+                return cached.value;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        }
+    }
+
+    private boolean unavailable(Exception failure) {
+        return failure instanceof RetriesExhaustedException || failure instanceof CircuitBreakerOpenException
+                || failure instanceof RejectedExecutionException || retrier.exceptionMatcher.retry(failure);
+    }
+
+    private Remembered<V> lookup(K key) {
+        synchronized (entries) {
+            Remembered<V> cached = entries.get(key);
+            if (cached != null && retrier.clock.nanoTime() - cached.produced > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void remember(K key, V value) {
+        Remembered<V> remembered = new Remembered<>(value, retrier.clock.nanoTime());
+        synchronized (entries) {
+            entries.put(key, remembered);
+        }
+    }
+
+    private static class Remembered<V> {
+        private final V value;
+        private final long produced;
+
+        private Remembered(final V value, final long produced) {
+            this.value = value;
+            this.produced = produced;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Clock;
+
+/**
+ * The Clock used by default, backed by System.nanoTime and Thread.sleep.
+ */
+public class SystemClock implements Clock {
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    private SystemClock() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleep(final long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+}
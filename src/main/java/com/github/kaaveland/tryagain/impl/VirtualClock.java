@@ -0,0 +1,113 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Cancellable;
+import com.github.kaaveland.tryagain.api.Clock;
+import com.github.kaaveland.tryagain.api.Scheduler;
+
+import java.util.PriorityQueue;
+
+/**
+ * A Clock and Scheduler where time only moves when told to, for testing and simulating retry timing.
+ *
+ * Sleeping moves the time forward instead of blocking, and scheduled tasks run on the thread that moves the time
+ * past their due time. Use the same VirtualClock as both the clock and the scheduler of a Retrier, and millions of
+ * retrying calls with delays, deadlines and timeouts run in as much CPU time as the attempts themselves take.
+ *
+ * Meant to be driven by one thread at a time. If sleep is called from several threads, each call moves the shared
+ * time forward.
+ */
+public class VirtualClock implements Clock, Scheduler {
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private long now;
+    private long scheduled;
+
+    @Override
+    public synchronized long nanoTime() {
+        return now;
+    }
+
+    /**
+     * @return Milliseconds since this VirtualClock was created.
+     */
+    public synchronized long currentMillis() {
+        return now / 1000000L;
+    }
+
+    @Override
+    public void sleep(final long millis) {
+        advance(millis);
+    }
+
+    @Override
+    public synchronized Cancellable schedule(final Runnable task, final long delayMillis) {
+        final Task scheduledTask = new Task(task, now + Math.max(0, delayMillis) * 1000000L, scheduled++);
+        tasks.add(scheduledTask);
+        return () -> cancel(scheduledTask);
+    }
+
+    /**
+     * Move the time forward by millis, running the tasks that become due in the order they are due.
+     * @param millis
+     */
+    public void advance(final long millis) {
+        long until;
+        synchronized (this) {
+            until = now + millis * 1000000L;
+        }
+        for (Task next = nextDue(until); next != null; next = nextDue(until)) {
+            next.task.run();
+        }
+        synchronized (this) {
+            now = Math.max(now, until);
+        }
+    }
+
+    /**
+     * Run scheduled tasks, moving the time forward to each of them, until no more are scheduled.
+     */
+    public void runAll() {
+        for (Task next = nextDue(Long.MAX_VALUE); next != null; next = nextDue(Long.MAX_VALUE)) {
+            next.task.run();
+        }
+    }
+
+    /**
+     * @return The number of tasks that are scheduled and have not run yet.
+     */
+    public synchronized int pending() {
+        return tasks.size();
+    }
+
+    private synchronized boolean cancel(Task task) {
+        return tasks.remove(task);
+    }
+
+    private synchronized Task nextDue(long until) {
+        Task next = tasks.peek();
+        if (next == null || next.due > until) {
+            return null;
+        }
+        tasks.poll();
+        now = Math.max(now, next.due);
+        return next;
+    }
+
+    private static class Task implements Comparable<Task> {
+        private final Runnable task;
+        private final long due;
+        private final long sequence;
+
+        private Task(final Runnable task, final long due, final long sequence) {
+            this.task = task;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final Task other) {
+            // Tasks due at the same time run in the order they were scheduled
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
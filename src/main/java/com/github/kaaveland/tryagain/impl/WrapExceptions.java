@@ -1,5 +1,7 @@
 package com.github.kaaveland.tryagain.impl;
 
+import com.github.kaaveland.tryagain.api.ResultMatcher;
+import com.github.kaaveland.tryagain.api.RetriesExhaustedException;
 import com.github.kaaveland.tryagain.api.Retriable;
 import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
 import com.github.kaaveland.tryagain.api.Retrier;
@@ -7,16 +9,52 @@ import com.github.kaaveland.tryagain.api.WrappedException;
 
 public class WrapExceptions {
     public final Retrier retrier;
+    public final boolean writableStackTrace;
+    // Created on first use of withoutStackTraces
+    private WrapExceptions withoutStackTraces;
 
     public WrapExceptions(final Retrier retrier) {
+        this(retrier, true);
+    }
+
+    /**
+     * @param retrier
+     * @param writableStackTrace false to create WrappedExceptions without capturing a stack trace.
+     */
+    public WrapExceptions(final Retrier retrier, final boolean writableStackTrace) {
         this.retrier = retrier;
+        this.writableStackTrace = writableStackTrace;
+    }
+
+    /**
+     * Capturing the stack trace dominates the cost of a WrappedException, and the stack trace of the cause tells
+     * where the exception came from anyway.
+     * @return A WrapExceptions that creates WrappedExceptions without capturing a stack trace.
+     */
+    public WrapExceptions withoutStackTraces() {
+        if (!writableStackTrace) {
+            return this;
+        }
+        WrapExceptions withoutStackTraces = this.withoutStackTraces;
+        if (withoutStackTraces == null) {
+            this.withoutStackTraces = withoutStackTraces = new WrapExceptions(retrier, false);
+        }
+        return withoutStackTraces;
     }
 
     public <T> T execute(Retriable<T> operation) {
         try {
             return retrier.execute(operation);
         } catch (Exception exception) {
-            throw new WrappedException(exception);
+            throw wrap(exception);
+        }
+    }
+
+    public <T> T execute(Retriable<T> operation, ResultMatcher<? super T> resultMatcher) {
+        try {
+            return retrier.execute(operation, resultMatcher);
+        } catch (Exception exception) {
+            throw wrap(exception);
         }
     }
 
@@ -24,7 +62,15 @@ public class WrapExceptions {
         try {
             retrier.execute(operation);
         } catch (Exception exception) {
-            throw new WrappedException(exception);
+            throw wrap(exception);
+        }
+    }
+
+    private WrappedException wrap(Exception exception) {
+        if (exception instanceof RetriesExhaustedException) {
+            // Already unchecked and wrapping the exception that ended retrying
+            return (RetriesExhaustedException) exception;
         }
+        return new WrappedException(exception, writableStackTrace);
     }
 }
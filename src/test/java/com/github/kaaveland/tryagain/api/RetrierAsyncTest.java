@@ -0,0 +1,138 @@
+package com.github.kaaveland.tryagain.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RetrierAsyncTest {
+
+    private static class FailUntil implements AsyncRetriable<String> {
+        private final int succeedOn;
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        private FailUntil(final int succeedOn) {
+            this.succeedOn = succeedOn;
+        }
+
+        @Override
+        public CompletionStage<String> execute(final int attempt) throws Exception {
+            invocations.incrementAndGet();
+            CompletableFuture<String> result = new CompletableFuture<>();
+            if (attempt < succeedOn) {
+                result.completeExceptionally(new IOException());
+            } else {
+                result.complete("Result " + attempt);
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void that_executeAsync_retries_exceptionally_completed_stages() throws Exception {
+        FailUntil operation = new FailUntil(3);
+        String result = on(IOException.class).maxAttempts(3).executeAsync(operation).get();
+        assertThat(result, equalTo("Result 3"));
+        assertThat(operation.invocations.get(), is(3));
+    }
+
+    @Test
+    public void that_executeAsync_completes_exceptionally_when_attempts_are_exhausted() throws Exception {
+        FailUntil operation = new FailUntil(10);
+        try {
+            on(IOException.class).maxAttempts(3).executeAsync(operation).get();
+            fail("Expected the future to fail");
+        } catch (ExecutionException exception) {
+            assertThat(exception.getCause(), instanceOf(IOException.class));
+        }
+        assertThat(operation.invocations.get(), is(3));
+    }
+
+    @Test
+    public void that_executeAsync_does_not_retry_unmatched_exceptions() throws Exception {
+        FailUntil operation = new FailUntil(3);
+        try {
+            on(RuntimeException.class).maxAttempts(3).executeAsync(operation).get();
+            fail("Expected the future to fail");
+        } catch (ExecutionException exception) {
+            assertThat(exception.getCause(), instanceOf(IOException.class));
+        }
+        assertThat(operation.invocations.get(), is(1));
+    }
+
+    @Test
+    public void that_executeAsync_returns_before_delay_has_passed() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        CompletableFuture<Void> result = on(IOException.class).maxAttempts(2).withDelay(1000)
+                .executeAsync(new RetriableWithoutResult() {
+            @Override
+            public void execute(final int attempt) throws Exception {
+                if (invocations.incrementAndGet() == 1) {
+                    throw new IOException();
+                }
+            }
+        });
+        Thread.sleep(100);
+        assertThat(result.isDone(), is(false));
+        assertThat(invocations.get(), is(1));
+        result.get();
+        assertThat(invocations.get(), is(2));
+    }
+
+    @Test
+    public void that_cancelling_the_future_stops_further_attempts() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        CompletableFuture<String> result = on(IOException.class).maxAttempts(5).withDelay(200)
+                .executeAsync(new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                invocations.incrementAndGet();
+                throw new IOException();
+            }
+        });
+        Thread.sleep(100);
+        result.cancel(false);
+        Thread.sleep(400);
+        assertThat(invocations.get(), is(1));
+    }
+
+    @Test
+    public void that_blocking_retriables_do_not_run_on_the_scheduler() throws Exception {
+        String thread = on(IOException.class).executeAsync(new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                return Thread.currentThread().getName();
+            }
+        }).get();
+        assertThat(thread, startsWith("tryagain-attempt-"));
+    }
+
+    @Test
+    public void that_blocking_attempts_do_not_hold_up_delays_of_other_calls() throws Exception {
+        Retrier retrier = on(IOException.class).maxAttempts(2).withDelay(10);
+        CompletableFuture<?>[] blocking = new CompletableFuture<?>[16];
+        for (int i = 0; i < blocking.length; i++) {
+            blocking[i] = retrier.executeAsync(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                    Thread.sleep(1000);
+                }
+            });
+        }
+        FailUntil failOnce = new FailUntil(2);
+        assertThat(retrier.executeAsync(failOnce).get(500, MILLISECONDS), equalTo("Result 2"));
+        CompletableFuture.allOf(blocking).get();
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.kaaveland.tryagain.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.mock;
+
+public class RetrierBatchTest {
+
+    private final List<Collection<Integer>> attempted = new ArrayList<>();
+
+    /**
+     * Doubles each item, but fails odd items with exception until the attempt number reaches the item.
+     */
+    private BatchRetriable<Integer, Integer> failOddUntilAttempt(final Exception exception) {
+        return new BatchRetriable<Integer, Integer>() {
+            @Override
+            public void execute(final Collection<Integer> items, final BatchOutcome<Integer, Integer> outcome,
+                                final int attempt) throws Exception {
+                attempted.add(new ArrayList<>(items));
+                for (Integer item : items) {
+                    if (item % 2 == 1 && attempt < item) {
+                        outcome.failed(item, exception);
+                    } else {
+                        outcome.succeeded(item, item * 2);
+                    }
+                }
+            }
+        };
+    }
+
+    @Test
+    public void that_only_failed_items_are_retried() throws Exception {
+        Map<Integer, Integer> results = on(IOException.class).maxAttempts(3)
+                .executeBatch(Arrays.asList(1, 2, 3, 4), failOddUntilAttempt(new IOException()));
+        assertThat(results.keySet(), contains(1, 2, 4, 3));
+        assertThat(results.get(3), equalTo(6));
+        assertThat(attempted.get(0), contains(1, 2, 3, 4));
+        assertThat(attempted.get(1), contains(3));
+        assertThat(attempted.get(2), contains(3));
+        assertThat(attempted.size(), equalTo(3));
+    }
+
+    @Test
+    public void that_items_still_failing_are_reported_when_retrier_gives_up() throws Exception {
+        try {
+            on(IOException.class).maxAttempts(2)
+                    .executeBatch(Arrays.asList(1, 2, 3, 4), failOddUntilAttempt(new IOException()));
+            fail("Expected BatchFailedException");
+        } catch (BatchFailedException exception) {
+            assertThat(exception.failures().keySet(), contains((Object) 3));
+            assertThat(exception.results().keySet(), contains((Object) 1, 2, 4));
+            assertThat(exception.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void that_items_failing_with_exceptions_that_should_not_be_retried_are_not_attempted_again()
+            throws Exception {
+        try {
+            on(IOException.class).maxAttempts(3)
+                    .executeBatch(Arrays.asList(1, 2, 3), failOddUntilAttempt(new IllegalStateException()));
+            fail("Expected BatchFailedException");
+        } catch (BatchFailedException exception) {
+            assertThat(exception.failures().keySet(), contains((Object) 3));
+        }
+        assertThat(attempted.size(), equalTo(1));
+    }
+
+    @Test
+    public void that_throwing_fails_the_items_that_were_not_reported() throws Exception {
+        final List<Collection<String>> attempted = new ArrayList<>();
+        Map<String, String> results = on(IOException.class).maxAttempts(2).executeBatch(
+                Arrays.asList("a", "b"), new BatchRetriable<String, String>() {
+                    @Override
+                    public void execute(final Collection<String> items, final BatchOutcome<String, String> outcome,
+                                        final int attempt) throws Exception {
+                        attempted.add(new ArrayList<>(items));
+                        outcome.succeeded("a", "A");
+                        if (attempt == 1) {
+                            throw new IOException();
+                        }
+                        outcome.succeeded("b", "B");
+                    }
+                });
+        assertThat(results.keySet(), contains("a", "b"));
+        assertThat(attempted.get(1), contains((Object) "b"));
+    }
+
+    @Test
+    public void that_an_empty_batch_succeeds_without_retries() throws Exception {
+        Map<Integer, Integer> results = on(IOException.class)
+                .executeBatch(new ArrayList<Integer>(), failOddUntilAttempt(new IOException()));
+        assertThat(results.isEmpty(), is(true));
+        assertThat(attempted.get(0), is(empty()));
+    }
+
+    @Test
+    public void that_an_exception_no_item_can_carry_is_thrown() throws Exception {
+        final IllegalStateException closing = new IllegalStateException("Failed to close connection");
+        BatchRetriable<Integer, Integer> throwAfterReporting = new BatchRetriable<Integer, Integer>() {
+            @Override
+            public void execute(final Collection<Integer> items, final BatchOutcome<Integer, Integer> outcome,
+                                final int attempt) throws Exception {
+                for (Integer item : items) {
+                    outcome.succeeded(item, item * 2);
+                }
+                throw closing;
+            }
+        };
+        for (List<Integer> items : Arrays.asList(Arrays.asList(1, 2), new ArrayList<Integer>())) {
+            try {
+                on(IOException.class).maxAttempts(3).executeBatch(items, throwAfterReporting);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException exception) {
+                assertThat(exception, is(closing));
+            }
+        }
+    }
+
+    @Test
+    public void that_an_empty_batch_rejected_by_the_concurrency_limiter_throws_the_rejection() throws Exception {
+        ConcurrencyLimiter full = mock(ConcurrencyLimiter.class);
+        try {
+            on(IOException.class).withConcurrencyLimiter(full)
+                    .executeBatch(new ArrayList<Integer>(), failOddUntilAttempt(new IOException()));
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {} // Expected
+        assertThat(attempted, is(empty()));
+    }
+
+    @Test
+    public void that_batch_failures_without_items_have_no_cause() {
+        BatchFailedException failed = new BatchFailedException(new HashMap<>(), new HashMap<Object, Exception>());
+        assertThat(failed.getCause(), is(nullValue()));
+        assertThat(failed.getMessage(), equalTo("0 items in batch failed"));
+    }
+}
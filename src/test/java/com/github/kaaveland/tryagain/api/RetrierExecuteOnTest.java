@@ -0,0 +1,82 @@
+package com.github.kaaveland.tryagain.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class RetrierExecuteOnTest {
+    private static final int OPERATIONS = 100000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void that_attempts_run_on_the_executor() throws Exception {
+        final AtomicInteger attemptsOnExecutor = new AtomicInteger();
+        final ExecutorService marked = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "marked"));
+        try {
+            on(IOException.class).maxAttempts(3).withScheduler(scheduler).executeOn(marked)
+                    .executeAsync(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                    if (Thread.currentThread().getName().equals("marked")) {
+                        attemptsOnExecutor.incrementAndGet();
+                    }
+                    if (attempt < 3) {
+                        throw new IOException();
+                    }
+                }
+            }).get(10, SECONDS);
+        } finally {
+            marked.shutdownNow();
+        }
+        assertThat(attemptsOnExecutor.get(), is(3));
+    }
+
+    @Test
+    public void that_100k_concurrent_retrying_operations_do_not_grow_the_thread_count() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Retrier retrier = on(IOException.class).maxAttempts(3).withDelay(50)
+                .withScheduler(scheduler).executeOn(executor);
+        RetriableWithoutResult failTwice = new RetriableWithoutResult() {
+            @Override
+            public void execute(final int attempt) throws Exception {
+                if (attempt < 3) {
+                    throw new IOException();
+                }
+            }
+        };
+        // Start the pools before measuring, they are allowed to cost their own threads.
+        retrier.executeAsync(failTwice).get(10, SECONDS);
+        int before = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        CompletableFuture<?>[] operations = new CompletableFuture<?>[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            operations[i] = retrier.executeAsync(failTwice);
+        }
+        CompletableFuture.allOf(operations).get(60, SECONDS);
+
+        assertThat(threads.getPeakThreadCount(), is(lessThanOrEqualTo(before + 1)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.kaaveland.tryagain.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RetrierHedgeTest {
+
+    @Test
+    public void that_a_hanging_attempt_is_hedged_and_interrupted_when_the_hedge_wins() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        long before = System.currentTimeMillis();
+        String result = on(IOException.class).maxAttempts(2).hedgeAfter(50).execute(new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                if (attempt == 1) {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException exception) {
+                        interrupted.countDown();
+                        throw exception;
+                    }
+                }
+                return "Result " + attempt;
+            }
+        });
+        assertThat(result, equalTo("Result 2"));
+        assertThat(System.currentTimeMillis() - before, is(lessThan(5000L)));
+        assertThat(interrupted.await(5, SECONDS), is(true));
+    }
+
+    @Test
+    public void that_no_hedge_is_started_when_the_first_attempt_is_fast() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        String result = on(IOException.class).maxAttempts(3).hedgeAfter(500).execute(new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                invocations.incrementAndGet();
+                return "Result";
+            }
+        });
+        Thread.sleep(600);
+        assertThat(result, equalTo("Result"));
+        assertThat(invocations.get(), is(1));
+    }
+
+    @Test
+    public void that_failed_attempts_are_retried_while_hedging() throws Exception {
+        String result = on(IOException.class).maxAttempts(3).hedgeAfter(1000).execute(new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                if (attempt < 3) {
+                    throw new IOException();
+                }
+                return "Result " + attempt;
+            }
+        });
+        assertThat(result, equalTo("Result 3"));
+    }
+
+    @Test
+    public void that_hedging_gives_up_with_the_last_exception_when_all_attempts_fail() throws Exception {
+        final AtomicBoolean unexpectedAttempt = new AtomicBoolean();
+        try {
+            on(IOException.class).maxAttempts(2).hedgeAfter(10).execute(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                    if (attempt > 2) {
+                        unexpectedAttempt.set(true);
+                    }
+                    Thread.sleep(50);
+                    throw new IOException();
+                }
+            });
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        assertThat(unexpectedAttempt.get(), is(false));
+    }
+
+    @Test
+    public void that_concurrent_hedged_calls_do_not_wait_for_each_other() throws Exception {
+        Retrier retrier = on(IOException.class).maxAttempts(2).hedgeAfter(50);
+        Retriable<String> slowFirstAttempt = new Retriable<String>() {
+            @Override
+            public String execute(final int attempt) throws Exception {
+                if (attempt == 1) {
+                    Thread.sleep(10000);
+                }
+                return "Result " + attempt;
+            }
+        };
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[16];
+        long before = System.currentTimeMillis();
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = retrier.executeAsync(slowFirstAttempt);
+        }
+        CompletableFuture.allOf(calls).get(5, SECONDS);
+        assertThat(System.currentTimeMillis() - before, is(lessThan(2000L)));
+        for (CompletableFuture<?> call : calls) {
+            assertThat(call.get(0, MILLISECONDS), equalTo((Object) "Result 2"));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.kaaveland.tryagain.api;
+
+import com.github.kaaveland.tryagain.impl.RetryMetrics;
+import com.github.kaaveland.tryagain.impl.VirtualClock;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RetrierResultMatcherTest {
+
+    private final ResultMatcher<Optional<String>> empty = new ResultMatcher<Optional<String>>() {
+        @Override
+        public boolean retry(final Optional<String> result) {
+            return !result.isPresent();
+        }
+    };
+
+    private Retriable<Optional<String>> emptyUntil(final int attempt) {
+        return new Retriable<Optional<String>>() {
+            @Override
+            public Optional<String> execute(final int current) throws Exception {
+                return current < attempt ? Optional.<String>empty() : Optional.of("Result " + current);
+            }
+        };
+    }
+
+    @Test
+    public void that_results_are_retried_until_one_should_not_be() throws Exception {
+        RetryMetrics metrics = new RetryMetrics("replica");
+        Optional<String> result = on(IOException.class).maxAttempts(3).withListener(metrics)
+                .execute(emptyUntil(3), empty);
+        assertThat(result, equalTo(Optional.of("Result 3")));
+        assertThat(metrics.retries(), equalTo(2L));
+        assertThat(metrics.successesAfterRetry(), equalTo(1L));
+    }
+
+    @Test
+    public void that_the_last_result_is_returned_when_retrier_gives_up() throws Exception {
+        RetryListener listener = mock(RetryListener.class);
+        Optional<String> result = on(IOException.class).maxAttempts(2).withListener(listener)
+                .execute(emptyUntil(3), empty);
+        assertThat(result, equalTo(Optional.<String>empty()));
+        verify(listener).onRetry(null, 1, 0);
+        verify(listener).onGiveUp((Throwable) isNull(), eq(2), anyLong());
+    }
+
+    @Test
+    public void that_exceptions_are_still_retried() throws Exception {
+        Optional<String> result = on(IOException.class).maxAttempts(3).execute(new Retriable<Optional<String>>() {
+            @Override
+            public Optional<String> execute(final int attempt) throws Exception {
+                if (attempt == 1) {
+                    throw new IOException();
+                }
+                return attempt == 2 ? Optional.<String>empty() : Optional.of("Result");
+            }
+        }, empty);
+        assertThat(result, equalTo(Optional.of("Result")));
+    }
+
+    @Test
+    public void that_retried_results_count_as_failures_for_the_circuit_breaker() throws Exception {
+        CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+        when(circuitBreaker.tryAcquirePermission()).thenReturn(true);
+        on(IOException.class).maxAttempts(2).withCircuitBreaker(circuitBreaker).execute(emptyUntil(2), empty);
+        verify(circuitBreaker).onFailure();
+        verify(circuitBreaker).onSuccess();
+    }
+
+    @Test
+    public void that_retried_results_count_as_failures_for_the_concurrency_limiter() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        when(limiter.tryAcquire()).thenReturn(true);
+        on(IOException.class).maxAttempts(2).withConcurrencyLimiter(limiter).execute(emptyUntil(2), empty);
+        verify(limiter).onFailure(anyLong());
+        verify(limiter).onSuccess(anyLong());
+    }
+
+    @Test
+    public void that_delays_after_retried_results_count_towards_the_total_delay() throws Exception {
+        VirtualClock clock = new VirtualClock();
+        try {
+            on(IOException.class).maxAttempts(3).withDelay(10).withClock(clock).throwRetriesExhausted()
+                    .execute(new Retriable<Optional<String>>() {
+                        @Override
+                        public Optional<String> execute(final int attempt) throws Exception {
+                            if (attempt == 1) {
+                                return Optional.empty();
+                            }
+                            throw new IOException();
+                        }
+                    }, empty);
+            fail("Expected RetriesExhaustedException");
+        } catch (RetriesExhaustedException exhausted) {
+            assertThat(exhausted.totalDelayMillis(), equalTo(20L));
+        }
+    }
+}
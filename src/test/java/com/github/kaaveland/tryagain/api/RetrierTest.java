@@ -1,24 +1,38 @@
 package com.github.kaaveland.tryagain.api;
 
 import com.github.kaaveland.tryagain.impl.ExceptionIn;
+import com.github.kaaveland.tryagain.impl.RatioRetryBudget;
+import com.github.kaaveland.tryagain.impl.SlidingWindowCircuitBreaker;
+import com.github.kaaveland.tryagain.impl.VirtualClock;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.kaaveland.tryagain.api.TryAgain.on;
 import static com.github.kaaveland.tryagain.api.TryAgain.onInstanceOf;
 import static junit.framework.Assert.fail;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 public class RetrierTest {
 
@@ -58,7 +72,7 @@ public class RetrierTest {
         doThrow(new IOException()).when(operation).execute(anyInt());
         try {
             on(IOException.class).maxAttempts(4).execute(operation);
-        } catch (IOException _) {} // Ignore
+        } catch (IOException expected) {} // Ignore
         verify(operation).execute(1);
         verify(operation).execute(2);
         verify(operation).execute(3);
@@ -146,4 +160,249 @@ public class RetrierTest {
         assertThat(result, equalTo("Result"));
     }
 
+    @Test
+    public void that_an_exhausted_retry_budget_rethrows_without_retrying() throws Exception {
+        RetryBudget budget = new RatioRetryBudget(0, 1, 60000);
+        Retrier retrier = on(IOException.class).maxAttempts(3).withRetryBudget(budget);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        doThrow(new IOException()).when(operation).execute(anyInt());
+        try {
+            retrier.execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, used the single retry in the budget
+        try {
+            retrier.execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, budget is exhausted
+        verify(operation, times(3)).execute(anyInt());
+    }
+
+    @Test
+    public void that_retries_ruled_out_by_the_deadline_do_not_use_the_budget() throws Exception {
+        RetryBudget budget = mock(RetryBudget.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        doThrow(new IOException()).when(operation).execute(anyInt());
+        try {
+            on(IOException.class).maxAttempts(3).withRetryBudget(budget).withDelay(1000).withDeadline(100)
+                    .execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, the delay would pass the deadline
+        verify(budget).recordAttempt();
+        verify(budget, never()).tryRetry();
+    }
+
+    @Test
+    public void that_the_breaker_is_not_asked_about_retries_the_budget_denies() throws Exception {
+        RetryBudget budget = mock(RetryBudget.class);
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.tryAcquirePermission()).thenReturn(true);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        doThrow(new IOException()).when(operation).execute(anyInt());
+        try {
+            on(IOException.class).maxAttempts(3).withRetryBudget(budget).withCircuitBreaker(breaker)
+                    .execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, the budget is empty
+        // Only for the first attempt, so a trial attempt of a half open breaker is not taken and left unused
+        verify(breaker, times(1)).tryAcquirePermission();
+        verify(budget).tryRetry();
+    }
+
+    @Test
+    public void that_a_half_open_breaker_gets_its_trial_back_when_the_budget_denies_the_retry() throws Exception {
+        final VirtualClock clock = new VirtualClock();
+        final SlidingWindowCircuitBreaker breaker = new SlidingWindowCircuitBreaker(1, 1.0, 100, 1, clock);
+        RetryBudget empty = mock(RetryBudget.class);
+        try {
+            on(IOException.class).maxAttempts(2).withClock(clock).withRetryBudget(empty).withCircuitBreaker(breaker)
+                    .execute(new RetriableWithoutResult() {
+                        @Override
+                        public void execute(final int attempt) throws Exception {
+                            // Another caller opens the circuit, and it is time for a trial when this attempt fails
+                            breaker.onFailure();
+                            clock.advance(100);
+                            throw new IOException();
+                        }
+                    });
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, the budget is empty
+        assertThat(breaker.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void that_an_open_circuit_breaker_rejects_calls_without_invoking_operation() throws Exception {
+        Retrier retrier = on(IOException.class).maxAttempts(5)
+                .withCircuitBreaker(new SlidingWindowCircuitBreaker(2, 1.0, 60000, 1));
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        doThrow(new IOException()).when(operation).execute(anyInt());
+        try {
+            retrier.execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected, the circuit opens after two failed attempts
+        try {
+            retrier.execute(operation);
+            fail("Expected CircuitBreakerOpenException");
+        } catch (CircuitBreakerOpenException expected) {} // Expected
+        verify(operation, times(2)).execute(anyInt());
+    }
+
+    @Test
+    public void that_listeners_are_told_about_attempts_retries_and_success() throws Exception {
+        RetryListener listener = mock(RetryListener.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        IOException failure = new IOException();
+        doThrow(failure).when(operation).execute(1);
+        on(IOException.class).maxAttempts(2).withDelay(10).withListener(listener).execute(operation);
+        InOrder order = inOrder(listener);
+        order.verify(listener).onAttempt(1);
+        order.verify(listener).onRetry(failure, 1, 10);
+        order.verify(listener).onAttempt(2);
+        order.verify(listener).onSuccess(eq(2), anyLong());
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void that_listeners_are_told_when_retrier_gives_up() throws Exception {
+        RetryListener first = mock(RetryListener.class);
+        RetryListener second = mock(RetryListener.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        IOException failure = new IOException();
+        doThrow(failure).when(operation).execute(anyInt());
+        try {
+            on(RuntimeException.class).withListener(first).withListener(second).execute(operation);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        verify(first).onGiveUp(eq(failure), eq(1), anyLong());
+        verify(second).onGiveUp(eq(failure), eq(1), anyLong());
+    }
+
+    @Test
+    public void that_attempts_rejected_by_the_concurrency_limiter_are_not_made() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        when(limiter.tryAcquire()).thenReturn(false);
+        try {
+            on(IOException.class).maxAttempts(3).withConcurrencyLimiter(limiter).execute(operation);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {} // Expected
+        verifyNoMoreInteractions(operation);
+    }
+
+    @Test
+    public void that_rejected_attempts_are_not_reported_as_attempt_outcomes() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        RetryListener listener = mock(RetryListener.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        when(limiter.tryAcquire()).thenReturn(true, false);
+        when(breaker.tryAcquirePermission()).thenReturn(true);
+        doThrow(new IOException()).when(operation).execute(anyInt());
+        try {
+            on(IOException.class).maxAttempts(3).withConcurrencyLimiter(limiter).withCircuitBreaker(breaker)
+                    .withListener(listener).execute(operation);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {} // Expected, the retry was rejected
+        verify(operation, times(1)).execute(anyInt());
+        verify(listener, times(1)).onAttempt(anyInt());
+        verify(listener).onGiveUp(any(RejectedExecutionException.class), eq(1), anyLong());
+        verify(breaker, times(1)).onFailure();
+        verify(breaker, never()).onSuccess();
+        // The permission for the rejected retry is handed back
+        verify(breaker).releasePermission();
+    }
+
+    @Test
+    public void that_each_attempt_is_reported_to_the_concurrency_limiter() throws Exception {
+        ConcurrencyLimiter limiter = mock(ConcurrencyLimiter.class);
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        when(limiter.tryAcquire()).thenReturn(true);
+        doThrow(new IOException()).when(operation).execute(1);
+        on(IOException.class).maxAttempts(2).withConcurrencyLimiter(limiter).execute(operation);
+        verify(limiter, times(2)).tryAcquire();
+        verify(limiter).onFailure(anyLong());
+        verify(limiter).onSuccess(anyLong());
+    }
+
+    @Test
+    public void that_reconfiguring_with_the_same_values_returns_the_same_retrier() {
+        Retrier retrier = on(IOException.class).maxAttempts(3).withDelay(10).withAttemptTimeout(100);
+        assertThat(retrier.maxAttempts(3).withDelay(10).withAttemptTimeout(100), is(sameInstance(retrier)));
+        assertThat(retrier.maxAttempts(4), is(not(sameInstance(retrier))));
+    }
+
+    @Test
+    public void that_facades_are_created_once_per_retrier() {
+        Retrier retrier = on(IOException.class);
+        assertThat(retrier.wrapExceptions(), is(sameInstance(retrier.wrapExceptions())));
+        assertThat(retrier.bypassExceptionChecking(), is(sameInstance(retrier.bypassExceptionChecking())));
+    }
+
+    @Test
+    public void that_retries_exhausted_tells_attempts_and_total_delay() throws Exception {
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        IOException failure = new IOException();
+        doThrow(failure).when(operation).execute(anyInt());
+        try {
+            on(IOException.class).maxAttempts(3).withDelay(5).throwRetriesExhausted().execute(operation);
+            fail("Expected RetriesExhaustedException");
+        } catch (RetriesExhaustedException exception) {
+            assertThat(exception.attempts(), equalTo(3));
+            assertThat(exception.totalDelayMillis(), equalTo(10L));
+            assertThat(exception.getCause(), is((Throwable) failure));
+            assertThat(exception.getStackTrace().length, equalTo(0));
+        }
+    }
+
+    @Test
+    public void that_retries_exhausted_builds_its_message_only_when_it_is_read() {
+        final AtomicInteger described = new AtomicInteger();
+        IOException failure = new IOException() {
+            @Override
+            public String toString() {
+                described.incrementAndGet();
+                return "Described";
+            }
+        };
+        RetriesExhaustedException exhausted = new RetriesExhaustedException(failure, 3, 10);
+        assertThat(described.get(), equalTo(0));
+        assertThat(exhausted.getMessage(), equalTo("Gave up after 3 attempts and 10 ms of delays: Described"));
+        assertThat(described.get(), equalTo(1));
+    }
+
+    @Test
+    public void that_exceptions_that_should_not_be_retried_are_not_reported_as_retries_exhausted() throws Exception {
+        RetriableWithoutResult operation = mock(RetriableWithoutResult.class);
+        doThrow(new IllegalStateException()).when(operation).execute(anyInt());
+        try {
+            on(IOException.class).maxAttempts(3).throwRetriesExhausted().execute(operation);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {} // Expected
+    }
+
+    @Test
+    public void that_earlier_failures_can_be_suppressed_by_the_last_one() throws Exception {
+        final IOException first = new IOException("first");
+        final IOException second = new IOException("second");
+        try {
+            on(IOException.class).maxAttempts(2).suppressEarlierFailures().execute(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                    throw attempt == 1 ? first : second;
+                }
+            });
+            fail("Expected IOException");
+        } catch (IOException exception) {
+            assertThat(exception, is(second));
+            assertThat(exception.getSuppressed().length, equalTo(1));
+            assertThat(exception.getSuppressed()[0], is((Throwable) first));
+        }
+    }
+
+    @Test
+    public void that_lambdas_returning_a_value_are_not_ambiguous() throws Exception {
+        assertThat(on(IOException.class).execute(attempt -> "Result " + attempt), equalTo("Result 1"));
+        assertThat(on(IOException.class).executeWithContext(context -> "Result " + context.attempt()),
+                equalTo("Result 1"));
+    }
+
 }
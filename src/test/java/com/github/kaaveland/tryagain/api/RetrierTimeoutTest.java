@@ -0,0 +1,153 @@
+package com.github.kaaveland.tryagain.api;
+
+import com.github.kaaveland.tryagain.impl.ScheduledExecutorScheduler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class RetrierTimeoutTest {
+
+    private final Retriable<String> hangOnFirstAttempt = new Retriable<String>() {
+        @Override
+        public String execute(final int attempt) throws Exception {
+            if (attempt == 1) {
+                Thread.sleep(10000);
+            }
+            return "Result " + attempt;
+        }
+    };
+
+    @Test
+    public void that_a_hanging_attempt_is_interrupted_and_retried() throws Exception {
+        long before = System.currentTimeMillis();
+        String result = on(TimeoutException.class).maxAttempts(2).withAttemptTimeout(100).execute(hangOnFirstAttempt);
+        assertThat(result, equalTo("Result 2"));
+        assertThat(System.currentTimeMillis() - before, is(lessThan(5000L)));
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void that_a_timed_out_attempt_fails_with_TimeoutException() throws Exception {
+        try {
+            on(IOException.class).maxAttempts(2).withAttemptTimeout(100).execute(hangOnFirstAttempt);
+            fail("Expected TimeoutException");
+        } catch (TimeoutException exception) {
+            assertThat(exception.getCause(), instanceOf(InterruptedException.class));
+        }
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void that_retrier_gives_up_instead_of_delaying_past_the_deadline() throws Exception {
+        RetriableWithoutResult alwaysFail = new RetriableWithoutResult() {
+            @Override
+            public void execute(final int attempt) throws Exception {
+                throw new IOException();
+            }
+        };
+        long before = System.currentTimeMillis();
+        try {
+            on(IOException.class).maxAttempts(10).withDelay(1000).withDeadline(500).execute(alwaysFail);
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        assertThat(System.currentTimeMillis() - before, is(lessThan(500L)));
+    }
+
+    @Test
+    public void that_contextual_retriables_see_the_time_they_have_left() throws Exception {
+        long remaining = on(IOException.class).withAttemptTimeout(10000).withDeadline(1000)
+                .executeWithContext(new ContextualRetriable<Long>() {
+            @Override
+            public Long execute(final AttemptContext context) throws Exception {
+                assertThat(context.attempt(), is(1));
+                return context.remainingMillis();
+            }
+        });
+        assertThat(remaining, is(lessThanOrEqualTo(1000L)));
+        assertThat(remaining, is(greaterThan(0L)));
+    }
+
+    @Test
+    public void that_contextual_retriables_have_no_limit_without_timeouts() throws Exception {
+        long remaining = on(IOException.class).executeWithContext(new ContextualRetriable<Long>() {
+            @Override
+            public Long execute(final AttemptContext context) throws Exception {
+                return context.remainingMillis();
+            }
+        });
+        assertThat(remaining, is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void that_an_async_attempt_that_never_completes_times_out() throws Exception {
+        final CompletableFuture<String> never = new CompletableFuture<>();
+        CompletableFuture<String> result = on(TimeoutException.class).maxAttempts(2).withAttemptTimeout(100)
+                .executeAsync(new AsyncRetriable<String>() {
+            @Override
+            public CompletionStage<String> execute(final int attempt) throws Exception {
+                return attempt == 1 ? never : CompletableFuture.completedFuture("Result " + attempt);
+            }
+        });
+        assertThat(result.get(5, SECONDS), equalTo("Result 2"));
+        // The timed out stage is cancelled right after the attempt fails, possibly after the retry has completed
+        for (int i = 0; i < 100 && !never.isCancelled(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(never.isCancelled(), is(true));
+    }
+
+    @Test
+    public void that_an_async_attempt_fails_with_TimeoutException_when_not_retried() throws Exception {
+        CompletableFuture<String> result = on(IOException.class).withAttemptTimeout(100)
+                .executeAsync(new AsyncRetriable<String>() {
+            @Override
+            public CompletionStage<String> execute(final int attempt) throws Exception {
+                return new CompletableFuture<>();
+            }
+        });
+        try {
+            result.get(5, SECONDS);
+            fail("Expected TimeoutException");
+        } catch (ExecutionException exception) {
+            assertThat(exception.getCause(), instanceOf(TimeoutException.class));
+        }
+    }
+
+    @Test
+    public void that_timeouts_fire_while_the_scheduler_is_busy() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        Scheduler scheduler = ScheduledExecutorScheduler.shared();
+        for (int i = 0; i < 2 * Math.max(2, Runtime.getRuntime().availableProcessors()); i++) {
+            scheduler.schedule(() -> {
+                try {
+                    release.await(10, SECONDS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0);
+        }
+        long before = System.currentTimeMillis();
+        try {
+            on(IOException.class).withAttemptTimeout(100).execute(hangOnFirstAttempt);
+            fail("Expected TimeoutException");
+        } catch (TimeoutException expected) {} // Expected
+        release.countDown();
+        assertThat(System.currentTimeMillis() - before, is(lessThan(2000L)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.kaaveland.tryagain.api;
+
+import com.github.kaaveland.tryagain.impl.RatioRetryBudget;
+import com.github.kaaveland.tryagain.impl.RetryMetrics;
+import com.github.kaaveland.tryagain.impl.VirtualClock;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RetrierVirtualTimeTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final Retrier retrier = on(IOException.class).withClock(clock).withScheduler(clock);
+
+    private Retriable<String> failUntil(final int attempt) {
+        return new Retriable<String>() {
+            @Override
+            public String execute(final int current) throws Exception {
+                if (current < attempt) {
+                    throw new IOException();
+                }
+                return "Result";
+            }
+        };
+    }
+
+    @Test
+    public void that_delays_pass_in_virtual_time() throws Exception {
+        assertThat(retrier.maxAttempts(4).exponentialBackoff(10).execute(failUntil(4)), equalTo("Result"));
+        // 10 + 10^2 + 10^3
+        assertThat(clock.currentMillis(), equalTo(1110L));
+    }
+
+    @Test
+    public void that_deadlines_are_checked_against_virtual_time() throws Exception {
+        try {
+            retrier.maxAttempts(10).withDelay(300).withDeadline(1000).execute(failUntil(10));
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        assertThat(clock.currentMillis(), equalTo(900L));
+    }
+
+    @Test
+    public void that_async_retries_run_when_virtual_time_is_advanced() throws Exception {
+        CompletableFuture<String> result = retrier.maxAttempts(3).withDelay(100).executeOn(Runnable::run)
+                .executeAsync(failUntil(3));
+        assertThat(result.isDone(), is(false));
+        clock.runAll();
+        assertThat(result.getNow(null), equalTo("Result"));
+        assertThat(clock.currentMillis(), equalTo(200L));
+    }
+
+    @Test
+    public void that_many_calls_can_be_simulated_with_budgets() throws Exception {
+        RetryMetrics metrics = new RetryMetrics("simulation");
+        Retrier simulated = retrier.maxAttempts(3).withDelay(100).withListener(metrics)
+                .withRetryBudget(new RatioRetryBudget(0.5, 0, 10000, clock));
+        for (int call = 0; call < 100000; call++) {
+            try {
+                simulated.execute(failUntil(3));
+            } catch (IOException exhausted) {} // Out of budget
+        }
+        assertThat(metrics.successes() + metrics.givenUp(), equalTo(100000L));
+        assertThat(metrics.attempts(), equalTo(100000L + metrics.retries()));
+        assertThat(metrics.givenUp() > 0, is(true));
+        assertThat(clock.currentMillis(), equalTo(metrics.delayMillis()));
+    }
+
+    @Test
+    public void that_timeouts_are_cancelled_when_attempts_finish_in_time() throws Exception {
+        Retrier timed = retrier.maxAttempts(2).withAttemptTimeout(1000);
+        assertThat(timed.execute(failUntil(2)), equalTo("Result"));
+        CompletableFuture<String> async = timed.executeAsync(new AsyncRetriable<String>() {
+            @Override
+            public CompletableFuture<String> execute(final int attempt) throws Exception {
+                return CompletableFuture.completedFuture("Result");
+            }
+        });
+        assertThat(async.getNow(null), equalTo("Result"));
+        assertThat(clock.pending(), is(0));
+    }
+}
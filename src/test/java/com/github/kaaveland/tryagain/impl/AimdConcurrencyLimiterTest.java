@@ -0,0 +1,56 @@
+package com.github.kaaveland.tryagain.impl;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class AimdConcurrencyLimiterTest {
+
+    private final AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 4, 100, 0.5);
+
+    @Test
+    public void that_attempts_over_the_limit_are_rejected() {
+        assertThat(limiter.tryAcquire(), is(true));
+        assertThat(limiter.tryAcquire(), is(true));
+        assertThat(limiter.tryAcquire(), is(false));
+        limiter.onSuccess(0);
+        assertThat(limiter.inFlight(), equalTo(1));
+        assertThat(limiter.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void that_the_limit_grows_while_in_use_up_to_max() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.onSuccess(0);
+            limiter.onSuccess(0);
+        }
+        assertThat(limiter.limit(), equalTo(4));
+    }
+
+    @Test
+    public void that_the_limit_does_not_grow_while_mostly_idle() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 8, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.onSuccess(0);
+        assertThat(limiter.limit(), equalTo(4));
+    }
+
+    @Test
+    public void that_failures_and_slow_attempts_decrease_the_limit_but_not_below_one() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 4, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.onFailure(0);
+        assertThat(limiter.limit(), equalTo(2));
+        limiter.tryAcquire();
+        limiter.onSuccess(200 * 1000000L);
+        assertThat(limiter.limit(), equalTo(1));
+        limiter.tryAcquire();
+        limiter.onFailure(0);
+        assertThat(limiter.limit(), equalTo(1));
+        assertThat(limiter.inFlight(), equalTo(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retrier;
+import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class BulkheadTest {
+
+    @Test
+    public void that_permits_are_taken_without_waiting_until_they_run_out() {
+        Bulkhead bulkhead = new Bulkhead(2, 0, 0);
+        assertThat(bulkhead.tryAcquire(), is(true));
+        assertThat(bulkhead.tryAcquire(), is(true));
+        assertThat(bulkhead.tryAcquire(), is(false));
+        bulkhead.onFailure(0);
+        assertThat(bulkhead.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void that_callers_wait_for_a_permit_to_be_released() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(1, 1, 5000);
+        bulkhead.tryAcquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(bulkhead::tryAcquire);
+            while (bulkhead.waiting() == 0) {
+                Thread.sleep(1);
+            }
+            bulkhead.onSuccess(0);
+            assertThat(waiter.get(5, SECONDS), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void that_callers_are_rejected_when_the_queue_is_full_or_the_wait_is_over() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(1, 1, 100);
+        bulkhead.tryAcquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(bulkhead::tryAcquire);
+            while (bulkhead.waiting() == 0) {
+                Thread.sleep(1);
+            }
+            long before = System.currentTimeMillis();
+            assertThat(bulkhead.tryAcquire(), is(false));
+            assertThat(System.currentTimeMillis() - before, is(lessThan(100L)));
+            assertThat(waiter.get(5, SECONDS), is(false));
+            assertThat(bulkhead.waiting(), equalTo(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void that_retrier_releases_the_permit_while_delaying() throws Exception {
+        final Retrier retrier = on(IOException.class).maxAttempts(2).withDelay(300).withBulkhead(1, 0, 0);
+        final CountDownLatch failed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> retrying = executor.submit(() -> {
+                retrier.execute(new RetriableWithoutResult() {
+                    @Override
+                    public void execute(final int attempt) throws Exception {
+                        if (attempt == 1) {
+                            failed.countDown();
+                            throw new IOException();
+                        }
+                    }
+                });
+                return null;
+            });
+            assertThat(failed.await(5, SECONDS), is(true));
+            Thread.sleep(50);
+            // Runs while the other call is delaying before its retry
+            retrier.execute(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                }
+            });
+            retrying.get(5, SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(((Bulkhead) retrier.concurrencyLimiter).available(), equalTo(1));
+    }
+
+    @Test
+    public void that_retrier_rejects_attempts_when_the_bulkhead_is_full() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 0, 0);
+        bulkhead.tryAcquire();
+        try {
+            on(IOException.class).withConcurrencyLimiter(bulkhead).execute(new RetriableWithoutResult() {
+                @Override
+                public void execute(final int attempt) throws Exception {
+                }
+            });
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {} // Expected
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class CappedExponentialBackoffStrategyTest {
+
+    private DelayStrategy base100 = new CappedExponentialBackoffStrategy(100, 2, 1000);
+
+    @Test
+    public void that_the_first_attempt_delays_base() {
+        assertThat(base100.delay(1), equalTo(100L));
+    }
+
+    @Test
+    public void that_subsequent_attempts_multiply_the_delay() {
+        assertThat(base100.delay(2), equalTo(200L));
+        assertThat(base100.delay(3), equalTo(400L));
+        assertThat(base100.delay(4), equalTo(800L));
+    }
+
+    @Test
+    public void that_the_delay_stops_at_cap_and_does_not_overflow() {
+        assertThat(base100.delay(5), equalTo(1000L));
+        assertThat(base100.delay(1000), equalTo(1000L));
+        assertThat(new CappedExponentialBackoffStrategy(100, 2, Long.MAX_VALUE).delay(1000), equalTo(Long.MAX_VALUE));
+    }
+}
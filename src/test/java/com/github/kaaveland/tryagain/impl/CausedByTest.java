@@ -0,0 +1,38 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ExceptionMatcher;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CausedByTest {
+    ExceptionMatcher causedByTimeout = new CausedBy(SocketTimeoutException.class);
+
+    @Test
+    public void that_the_exception_itself_is_matched() {
+        assertThat(causedByTimeout.retry(new SocketTimeoutException()), is(true));
+    }
+
+    @Test
+    public void that_a_wrapped_root_cause_is_matched() {
+        Exception wrapped = new RuntimeException(new IllegalStateException(new SocketTimeoutException()));
+        assertThat(causedByTimeout.retry(wrapped), is(true));
+    }
+
+    @Test
+    public void that_unrelated_cause_chains_are_not_matched() {
+        assertThat(causedByTimeout.retry(new RuntimeException(new IOException())), is(false));
+    }
+
+    @Test
+    public void that_cause_chains_that_loop_are_not_followed_forever() {
+        RuntimeException first = new RuntimeException();
+        IllegalStateException second = new IllegalStateException(first);
+        first.initCause(second);
+        assertThat(causedByTimeout.retry(first), is(false));
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DurableOperation;
+import com.github.kaaveland.tryagain.api.Retrier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class DurableRetryQueueTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Retrier retrier = on(IOException.class).maxAttempts(3).withDelay(10);
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Fails the first failures attempts of every operation, and counts down done for each one that succeeds.
+     */
+    private DurableOperation deliver(final int failures, final CountDownLatch done) {
+        return (descriptor, attempt) -> {
+            if (attempt <= failures) {
+                throw new IOException("Attempt " + attempt);
+            }
+            delivered.add(new String(descriptor, StandardCharsets.UTF_8) + "@" + attempt);
+            done.countDown();
+        };
+    }
+
+    private static byte[] bytes(String descriptor) {
+        return descriptor.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Path journal() {
+        return folder.getRoot().toPath().resolve("journal");
+    }
+
+    @Test
+    public void that_operations_are_retried_until_they_succeed() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 2, deliver(2, done))) {
+            queue.submit(bytes("a"));
+            queue.submit(bytes("b"));
+            assertThat(done.await(5, SECONDS), is(true));
+            assertThat(delivered, containsInAnyOrder("a@3", "b@3"));
+            while (queue.pending() > 0) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Test
+    public void that_pending_operations_are_picked_up_when_the_journal_is_opened_again() throws Exception {
+        DurableRetryQueue first = new DurableRetryQueue(retrier.withDelay(200), journal(), 4096, 1,
+                deliver(Integer.MAX_VALUE, new CountDownLatch(1)));
+        first.submit(bytes("a"));
+        first.submit(bytes("b"));
+        // Let the first attempts fail, then stop in the middle of the delay
+        Thread.sleep(100);
+        first.close();
+
+        CountDownLatch done = new CountDownLatch(2);
+        try (DurableRetryQueue second = new DurableRetryQueue(retrier, journal(), 4096, 1, deliver(0, done))) {
+            assertThat(second.pending(), equalTo(2));
+            assertThat(done.await(5, SECONDS), is(true));
+            assertThat(delivered, containsInAnyOrder("a@2", "b@2"));
+            // Ids are not reused after a restart
+            assertThat(second.submit(bytes("c")), equalTo(2L));
+        }
+    }
+
+    @Test
+    public void that_ids_are_not_reused_after_every_operation_has_completed() throws Exception {
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 1,
+                deliver(0, new CountDownLatch(1)))) {
+            assertThat(queue.submit(bytes("a")), equalTo(0L));
+            while (queue.pending() > 0) {
+                Thread.sleep(1);
+            }
+        }
+        // Opening compacts the journal twice, leaving no operations to take the next id from
+        new DurableRetryQueue(retrier, journal(), 4096, 1, deliver(0, new CountDownLatch(1))).close();
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 1,
+                deliver(0, new CountDownLatch(1)))) {
+            assertThat(queue.submit(bytes("b")), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void that_operations_that_are_given_up_on_are_not_picked_up_again() throws Exception {
+        CountDownLatch attempted = new CountDownLatch(1);
+        DurableOperation fail = (descriptor, attempt) -> {
+            attempted.countDown();
+            throw new IllegalStateException();
+        };
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 1, fail)) {
+            queue.submit(bytes("a"));
+            assertThat(attempted.await(5, SECONDS), is(true));
+            while (queue.pending() > 0) {
+                Thread.sleep(1);
+            }
+        }
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 1, fail)) {
+            assertThat(queue.pending(), equalTo(0));
+        }
+    }
+
+    @Test
+    public void that_completed_operations_are_compacted_away() throws Exception {
+        CountDownLatch done = new CountDownLatch(1000);
+        try (DurableRetryQueue queue = new DurableRetryQueue(retrier, journal(), 4096, 4, deliver(1, done))) {
+            for (int i = 0; i < 1000; i++) {
+                // Far more than fits in the journal, unless completed operations are removed
+                queue.submit(bytes("operation " + i));
+                while (queue.pending() > 10) {
+                    Thread.sleep(1);
+                }
+            }
+            assertThat(done.await(5, SECONDS), is(true));
+        }
+        assertThat(delivered.size(), equalTo(1000));
+        assertThat(Files.size(journal()), equalTo(4096L));
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class HashedWheelSchedulerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final HashedWheelScheduler wheel = new HashedWheelScheduler(5, 8, executor);
+
+    @After
+    public void tearDown() {
+        wheel.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void that_tasks_run_after_their_delay() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        long started = System.nanoTime();
+        // Longer than a turn of the wheel, which is 40 milliseconds
+        wheel.schedule(ran::countDown, 100);
+        assertThat(ran.await(5, SECONDS), is(true));
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - started) >= 100, is(true));
+        assertThat(wheel.pending(), equalTo(0));
+    }
+
+    @Test
+    public void that_cancelled_tasks_do_not_run() throws Exception {
+        final AtomicBoolean ran = new AtomicBoolean();
+        HashedWheelScheduler.Timeout timeout = wheel.newTimeout(() -> ran.set(true), 20);
+        assertThat(wheel.pending(), equalTo(1));
+        assertThat(timeout.cancel(), is(true));
+        assertThat(wheel.pending(), equalTo(0));
+        Thread.sleep(100);
+        assertThat(ran.get(), is(false));
+        assertThat(timeout.cancel(), is(false));
+    }
+
+    @Test
+    public void that_many_tasks_with_different_delays_all_run() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(100000);
+        for (int i = 0; i < 100000; i++) {
+            wheel.schedule(ran::countDown, i % 200);
+        }
+        assertThat(ran.await(5, SECONDS), is(true));
+    }
+
+    @Test
+    public void that_retriers_can_schedule_attempts_on_it() throws Exception {
+        String result = on(IOException.class).maxAttempts(3).withDelay(20).withScheduler(wheel)
+                .executeAsync(new Retriable<String>() {
+                    @Override
+                    public String execute(final int attempt) throws Exception {
+                        if (attempt < 3) {
+                            throw new IOException();
+                        }
+                        return "Result";
+                    }
+                }).get(5, SECONDS);
+        assertThat(result, equalTo("Result"));
+    }
+
+    @Test
+    public void that_tasks_that_throw_do_not_stop_the_wheel() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        try (HashedWheelScheduler direct = new HashedWheelScheduler(5, 8, Runnable::run)) {
+            direct.schedule(() -> {
+                throw new IllegalStateException("Thrown on the ticker");
+            }, 5);
+            direct.schedule(ran::countDown, 20);
+            assertThat(ran.await(5, SECONDS), is(true));
+        }
+    }
+
+    @Test
+    public void that_huge_delays_do_not_overflow_into_the_past() throws Exception {
+        final AtomicBoolean ran = new AtomicBoolean();
+        final CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(() -> ran.set(true), Long.MAX_VALUE);
+        wheel.schedule(later::countDown, 20);
+        assertThat(later.await(5, SECONDS), is(true));
+        assertThat(ran.get(), is(false));
+        assertThat(wheel.pending(), equalTo(1));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void that_closed_schedulers_reject_tasks() {
+        wheel.close();
+        wheel.schedule(() -> {}, 10);
+    }
+}
@@ -4,6 +4,8 @@ import com.github.kaaveland.tryagain.api.ExceptionMatcher;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -20,4 +22,22 @@ public class InstanceOfTest {
     public void that_ioexception_does_not_match_instancesof_runtime_exception() {
         assertThat(runtimeException.retry(new IOException()), is(false));
     }
+
+    @Test
+    public void that_changing_the_list_afterwards_does_not_change_what_matches() {
+        List<Class<? extends Exception>> types = new ArrayList<>();
+        types.add(IOException.class);
+        ExceptionMatcher io = new InstanceOf(types);
+        types.add(RuntimeException.class);
+        assertThat(io.retry(new IllegalStateException()), is(false));
+        assertThat(io.retry(new IllegalArgumentException()), is(false));
+    }
+
+    @Test
+    public void that_repeated_matches_give_the_same_answer() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(runtimeException.retry(new IllegalArgumentException()), is(true));
+            assertThat(runtimeException.retry(new IOException()), is(false));
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class JfrRetryListenerTest {
+
+    @Test
+    public void that_retries_and_give_ups_are_recorded() throws Exception {
+        Path file = Files.createTempFile("tryagain", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tryagain.Retry");
+            recording.enable("tryagain.GiveUp");
+            recording.start();
+            try {
+                on(IOException.class).maxAttempts(2).withListener(new JfrRetryListener("test"))
+                        .execute((Retriable<String>) attempt -> {
+                            throw new IOException();
+                        });
+                fail("Expected IOException");
+            } catch (IOException expected) {} // Expected
+            recording.stop();
+            recording.dump(file);
+            List<String> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                events.add(event.getEventType().getName() + " " + event.getString("retrier") + " "
+                        + event.getInt("attempt") + " " + event.getClass("exceptionClass").getName());
+            }
+            assertThat(events, equalTo(List.of(
+                    "tryagain.Retry test 1 java.io.IOException",
+                    "tryagain.GiveUp test 2 java.io.IOException")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.DelayStrategy;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class JitterStrategiesTest {
+    private static final int SAMPLES = 10000;
+
+    private void assertDelaysBetween(DelayStrategy strategy, int attempt, long min, long max) {
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = strategy.delay(attempt);
+            assertThat(delay, greaterThanOrEqualTo(min));
+            assertThat(delay, lessThanOrEqualTo(max));
+            distinct.add(delay);
+        }
+        assertThat("delays should be spread out", distinct.size(), greaterThan(1));
+    }
+
+    @Test
+    public void that_full_jitter_delays_between_zero_and_the_backoff() {
+        DelayStrategy strategy = new FullJitterStrategy(100, 1000);
+        assertDelaysBetween(strategy, 1, 0, 100);
+        assertDelaysBetween(strategy, 3, 0, 400);
+        assertDelaysBetween(strategy, 30, 0, 1000);
+    }
+
+    @Test
+    public void that_equal_jitter_delays_at_least_half_the_backoff() {
+        DelayStrategy strategy = new EqualJitterStrategy(100, 1000);
+        assertDelaysBetween(strategy, 1, 50, 100);
+        assertDelaysBetween(strategy, 3, 200, 400);
+        assertDelaysBetween(strategy, 30, 500, 1000);
+    }
+
+    @Test
+    public void that_jitter_does_not_overflow_when_the_cap_is_the_largest_long() {
+        assertDelaysBetween(new FullJitterStrategy(100, Long.MAX_VALUE), 100, 0, Long.MAX_VALUE);
+        assertDelaysBetween(new EqualJitterStrategy(100, Long.MAX_VALUE), 100, Long.MAX_VALUE / 2, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void that_decorrelated_jitter_delays_between_base_and_cap() {
+        DelayStrategy strategy = new DecorrelatedJitterStrategy(100, 1000);
+        assertDelaysBetween(strategy, 1, 100, 300);
+        assertDelaysBetween(strategy, 2, 100, 900);
+        assertDelaysBetween(strategy, 30, 100, 1000);
+    }
+}
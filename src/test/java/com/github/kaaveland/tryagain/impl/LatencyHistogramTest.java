@@ -0,0 +1,61 @@
+package com.github.kaaveland.tryagain.impl;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void that_an_empty_histogram_reports_zero() {
+        assertThat(histogram.count(), equalTo(0L));
+        assertThat(histogram.percentile(99), equalTo(0L));
+    }
+
+    @Test
+    public void that_small_values_are_recorded_exactly() {
+        for (long value = 0; value < 8; value++) {
+            histogram.record(value);
+        }
+        assertThat(histogram.count(), equalTo(8L));
+        assertThat(histogram.percentile(50), equalTo(3L));
+        assertThat(histogram.percentile(100), equalTo(7L));
+    }
+
+    @Test
+    public void that_percentiles_are_within_the_relative_precision() {
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertThat(histogram.percentile(50), is(within(50000000L)));
+        assertThat(histogram.percentile(99), is(within(99000000L)));
+        assertThat(histogram.percentile(100), is(within(100000000L)));
+    }
+
+    @Test
+    public void that_the_largest_values_do_not_overflow() {
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.percentile(100), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void that_every_value_maps_to_a_bucket_containing_it() {
+        for (int shift = 0; shift < 63; shift++) {
+            long value = (1L << shift) + 1;
+            assertThat(LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value)),
+                    greaterThanOrEqualTo(value));
+        }
+    }
+
+    private static Matcher<Long> within(long expected) {
+        return both(greaterThanOrEqualTo(expected)).and(lessThanOrEqualTo(expected + expected / 8));
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.RetryBudget;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RatioRetryBudgetTest {
+
+    @Test
+    public void that_min_retries_are_allowed_without_any_attempts() {
+        RetryBudget budget = new RatioRetryBudget(0.1, 2, 60000);
+        assertThat(budget.tryRetry(), is(true));
+        assertThat(budget.tryRetry(), is(true));
+        assertThat(budget.tryRetry(), is(false));
+    }
+
+    @Test
+    public void that_retries_are_limited_to_ratio_of_attempts() {
+        RetryBudget budget = new RatioRetryBudget(0.1, 0, 60000);
+        for (int i = 0; i < 100; i++) {
+            budget.recordAttempt();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(budget.tryRetry(), is(true));
+        }
+        assertThat(budget.tryRetry(), is(false));
+    }
+
+    @Test
+    public void that_the_budget_is_refilled_when_the_window_slides() {
+        VirtualClock clock = new VirtualClock();
+        RetryBudget budget = new RatioRetryBudget(0.1, 1, 100, clock);
+        assertThat(budget.tryRetry(), is(true));
+        assertThat(budget.tryRetry(), is(false));
+        clock.advance(99);
+        assertThat(budget.tryRetry(), is(false));
+        clock.advance(1);
+        assertThat(budget.tryRetry(), is(true));
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ContextualDelayStrategy;
+import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
+import com.github.kaaveland.tryagain.api.RetryAfter;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.onInstanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class RetryAfterDelayStrategyTest {
+
+    private static class ThrottledException extends IOException implements RetryAfter {
+        private final long retryAfterMillis;
+
+        private ThrottledException(final long retryAfterMillis) {
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        @Override
+        public long retryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    private final RetryAfterDelayStrategy strategy = new RetryAfterDelayStrategy(new StaticDelayStrategy(10), 1000);
+
+    @Test
+    public void that_the_hint_from_the_exception_is_used() {
+        assertThat(strategy.delay(1, new ThrottledException(250), 0), equalTo(250L));
+    }
+
+    @Test
+    public void that_hints_are_found_among_causes() {
+        assertThat(strategy.delay(1, new RuntimeException(new ThrottledException(250)), 0), equalTo(250L));
+    }
+
+    @Test
+    public void that_hints_are_capped() {
+        assertThat(strategy.delay(1, new ThrottledException(5000), 0), equalTo(1000L));
+    }
+
+    @Test
+    public void that_the_fallback_is_used_without_a_hint() {
+        assertThat(strategy.delay(1, new IOException(), 0), equalTo(10L));
+        assertThat(strategy.delay(1, new ThrottledException(-1), 0), equalTo(10L));
+        assertThat(strategy.delay(1), equalTo(10L));
+    }
+
+    @Test
+    public void that_retrier_passes_the_exception_and_elapsed_time() throws Exception {
+        final long[] seen = new long[2];
+        RetriableWithoutResult operation = new RetriableWithoutResult() {
+            @Override
+            public void execute(final int attempt) throws Exception {
+                if (attempt == 1) {
+                    Thread.sleep(20);
+                    throw new ThrottledException(30);
+                }
+            }
+        };
+        onInstanceOf(IOException.class).maxAttempts(2).withDelayStrategy(new ContextualDelayStrategy() {
+            @Override
+            public long delay(final int attempt, final Exception exception, final long elapsedMillis) {
+                seen[0] = ((RetryAfter) exception).retryAfterMillis();
+                seen[1] = elapsedMillis;
+                return 0;
+            }
+        }).execute(operation);
+        assertThat(seen[0], equalTo(30L));
+        assertThat(seen[1], greaterThanOrEqualTo(20L));
+    }
+
+    @Test
+    public void that_retrier_honors_retry_after() throws Exception {
+        RetriableWithoutResult operation = new RetriableWithoutResult() {
+            @Override
+            public void execute(final int attempt) throws Exception {
+                if (attempt == 1) {
+                    throw new ThrottledException(100);
+                }
+            }
+        };
+        long before = System.currentTimeMillis();
+        onInstanceOf(IOException.class).maxAttempts(2).withDelay(0).honorRetryAfter(1000).execute(operation);
+        assertThat(System.currentTimeMillis() - before, greaterThanOrEqualTo(100L));
+    }
+}
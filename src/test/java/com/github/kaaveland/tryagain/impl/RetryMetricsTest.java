@@ -0,0 +1,58 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.onInstanceOf;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class RetryMetricsTest {
+
+    private final RetryMetrics metrics = new RetryMetrics("users");
+
+    private Retriable<String> failUntil(final int attempt, final Exception exception) {
+        return new Retriable<String>() {
+            @Override
+            public String execute(final int current) throws Exception {
+                if (current < attempt) {
+                    throw exception;
+                }
+                return "Result";
+            }
+        };
+    }
+
+    @Test
+    public void that_metrics_count_attempts_retries_and_outcomes() throws Exception {
+        onInstanceOf(IOException.class).maxAttempts(3).withDelay(5).withListener(metrics)
+                .execute(failUntil(3, new SocketTimeoutException()));
+        onInstanceOf(IOException.class).maxAttempts(3).withListener(metrics).execute(failUntil(1, null));
+
+        assertThat(metrics.attempts(), equalTo(4L));
+        assertThat(metrics.retries(), equalTo(2L));
+        assertThat(metrics.successes(), equalTo(2L));
+        assertThat(metrics.successesAfterRetry(), equalTo(1L));
+        assertThat(metrics.givenUp(), equalTo(0L));
+        assertThat(metrics.delayMillis(), equalTo(10L));
+        assertThat(metrics.retriesByException().get(SocketTimeoutException.class), equalTo(2L));
+        assertThat(metrics.latencyNanos().count(), equalTo(2L));
+    }
+
+    @Test
+    public void that_metrics_count_calls_that_gave_up() throws Exception {
+        try {
+            onInstanceOf(IOException.class).maxAttempts(2).withListener(metrics)
+                    .execute(failUntil(3, new IOException()));
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        assertThat(metrics.attempts(), equalTo(2L));
+        assertThat(metrics.retries(), equalTo(1L));
+        assertThat(metrics.givenUp(), equalTo(1L));
+        assertThat(metrics.latencyNanos().count(), equalTo(1L));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class RetryRecorderTest {
+
+    private final RetryRecorder recorder = new RetryRecorder(4);
+
+    @Test
+    public void that_retries_and_give_ups_are_recorded_oldest_first() throws Exception {
+        Retrier retrier = on(IOException.class).maxAttempts(2).withDelay(5).withListener(recorder);
+        try {
+            retrier.execute((Retriable<String>) attempt -> {
+                throw new IOException();
+            });
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        List<RetryRecorder.Entry> entries = recorder.snapshot();
+        assertThat(entries.size(), equalTo(2));
+        assertThat(entries.get(0).gaveUp, is(false));
+        assertThat(entries.get(0).attempt, equalTo(1));
+        assertThat(entries.get(0).millis, equalTo(5L));
+        assertThat(entries.get(0).exceptionClass, equalTo((Object) IOException.class));
+        assertThat(entries.get(1).gaveUp, is(true));
+        assertThat(entries.get(1).attempt, equalTo(2));
+    }
+
+    @Test
+    public void that_only_the_most_recent_entries_are_kept() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            recorder.onRetry(new IOException(), attempt, 0);
+        }
+        List<Integer> attempts = new ArrayList<>();
+        for (RetryRecorder.Entry entry : recorder.snapshot()) {
+            attempts.add(entry.attempt);
+        }
+        assertThat(attempts, equalTo(List.of(7, 8, 9, 10)));
+    }
+
+    @Test
+    public void that_concurrent_recording_never_keeps_torn_entries() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int attempt = 1; attempt <= 100000; attempt++) {
+                        // The delay always matches the attempt, so a torn entry would show
+                        recorder.onRetry(null, attempt, attempt);
+                    }
+                }));
+            }
+            for (int snapshots = 0; snapshots < 1000; snapshots++) {
+                for (RetryRecorder.Entry entry : recorder.snapshot()) {
+                    assertThat(entry.millis, equalTo((long) entry.attempt));
+                }
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(recorder.snapshot().size(), equalTo(4));
+    }
+}
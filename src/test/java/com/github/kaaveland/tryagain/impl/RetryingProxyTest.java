@@ -0,0 +1,117 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.Retrier;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static com.github.kaaveland.tryagain.api.TryAgain.proxy;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class RetryingProxyTest {
+
+    public interface Users {
+        String fetch(String id) throws IOException;
+
+        void delete(String id) throws IOException;
+
+        int count() throws IOException;
+    }
+
+    /**
+     * Fails the first failures calls to each method.
+     */
+    private static class FlakyUsers implements Users {
+        private final int failures;
+        private int calls;
+
+        private FlakyUsers(final int failures) {
+            this.failures = failures;
+        }
+
+        private void maybeFail() throws IOException {
+            if (++calls <= failures) {
+                throw new IOException("Call " + calls);
+            }
+        }
+
+        @Override
+        public String fetch(final String id) throws IOException {
+            maybeFail();
+            return "User " + id;
+        }
+
+        @Override
+        public void delete(final String id) throws IOException {
+            maybeFail();
+        }
+
+        @Override
+        public int count() throws IOException {
+            maybeFail();
+            return 42;
+        }
+
+        @Override
+        public String toString() {
+            return "FlakyUsers";
+        }
+    }
+
+    private final Retrier retrier = on(IOException.class).maxAttempts(3);
+
+    @Test
+    public void that_methods_are_retried_with_their_arguments() throws Exception {
+        FlakyUsers target = new FlakyUsers(2);
+        Users users = proxy(Users.class, target, retrier);
+        assertThat(users.fetch("1"), equalTo("User 1"));
+        assertThat(target.calls, equalTo(3));
+        assertThat(users.count(), equalTo(42));
+    }
+
+    @Test
+    public void that_the_exception_is_thrown_when_retries_run_out() throws Exception {
+        Users users = proxy(Users.class, new FlakyUsers(3), retrier);
+        try {
+            users.fetch("1");
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertThat(expected.getMessage(), equalTo("Call 3"));
+        }
+    }
+
+    @Test
+    public void that_methods_use_the_retrier_chosen_for_them() throws Exception {
+        FlakyUsers target = new FlakyUsers(1);
+        Map<String, Retrier> retriers = new HashMap<>();
+        retriers.put("delete", null);
+        Users users = proxy(Users.class, target, retrier, retriers);
+        try {
+            users.delete("1");
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+        assertThat(target.calls, equalTo(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void that_retriers_for_missing_methods_are_rejected() {
+        proxy(Users.class, new FlakyUsers(0), retrier, Collections.singletonMap("remove", retrier));
+    }
+
+    @Test
+    public void that_object_methods_are_not_retried() {
+        FlakyUsers target = new FlakyUsers(0);
+        Users users = proxy(Users.class, target, retrier);
+        assertThat(users.toString(), equalTo("FlakyUsers"));
+        assertThat(users.hashCode(), equalTo(target.hashCode()));
+        assertThat(users.equals(users), is(true));
+        assertThat(users.equals(target), is(false));
+    }
+}
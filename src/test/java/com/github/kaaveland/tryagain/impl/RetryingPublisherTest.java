@@ -0,0 +1,149 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.ResumableSource;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class RetryingPublisherTest {
+
+    /**
+     * Publishes the numbers up to size, failing with IOException right before each number in failBefore the first
+     * time it gets there. The resume token is the last number delivered.
+     */
+    private static class Numbers implements ResumableSource<Integer, Integer> {
+        private final int size;
+        private final List<Integer> failBefore;
+        private final List<Integer> openedFrom = Collections.synchronizedList(new ArrayList<Integer>());
+
+        private Numbers(final int size, final Integer... failBefore) {
+            this.size = size;
+            this.failBefore = Collections.synchronizedList(new ArrayList<>(List.of(failBefore)));
+        }
+
+        @Override
+        public Flow.Publisher<Integer> open(final Integer resumeToken, final int attempt) {
+            final int from = resumeToken == null ? 0 : resumeToken + 1;
+            openedFrom.add(from);
+            return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+                private int next = from;
+                private boolean done;
+
+                @Override
+                public void request(long n) {
+                    for (; n > 0 && !done; n--) {
+                        if (next == size) {
+                            done = true;
+                            subscriber.onComplete();
+                        } else if (failBefore.remove((Integer) next)) {
+                            done = true;
+                            subscriber.onError(new IOException("Failed before " + next));
+                        } else {
+                            subscriber.onNext(next++);
+                        }
+                    }
+                    if (next == size && !done) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    done = true;
+                }
+            });
+        }
+
+        @Override
+        public Integer resumeToken(final Integer element) {
+            return element;
+        }
+    }
+
+    /**
+     * Requests one element at a time, checking that it is never sent more than it asked for.
+     */
+    private static class OneAtATime implements Flow.Subscriber<Integer> {
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile int outstanding;
+        private volatile boolean overDelivered;
+        private volatile Throwable failure;
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            outstanding = 1;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(final Integer item) {
+            overDelivered |= outstanding == 0;
+            outstanding--;
+            received.add(item);
+            outstanding++;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            failure = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            finished.countDown();
+        }
+    }
+
+    @Test
+    public void that_a_failing_stream_resumes_after_the_last_delivered_element() throws Exception {
+        Numbers source = new Numbers(6, 2, 4);
+        OneAtATime subscriber = new OneAtATime();
+        on(IOException.class).maxAttempts(2).withDelay(10).executePublisher(source).subscribe(subscriber);
+        assertThat(subscriber.finished.await(5, SECONDS), is(true));
+        assertThat(subscriber.failure, is(nullValue()));
+        assertThat(subscriber.received, contains(0, 1, 2, 3, 4, 5));
+        assertThat(source.openedFrom, contains(0, 2, 4));
+        assertThat(subscriber.overDelivered, is(false));
+    }
+
+    @Test
+    public void that_the_stream_fails_when_attempts_in_a_row_make_no_progress() throws Exception {
+        Numbers source = new Numbers(6, 2, 2, 2);
+        OneAtATime subscriber = new OneAtATime();
+        on(IOException.class).maxAttempts(3).executePublisher(source).subscribe(subscriber);
+        assertThat(subscriber.finished.await(5, SECONDS), is(true));
+        assertThat(subscriber.failure, instanceOf(IOException.class));
+        assertThat(subscriber.received, contains(0, 1));
+        assertThat(source.openedFrom.size(), equalTo(3));
+    }
+
+    @Test
+    public void that_exceptions_that_should_not_be_retried_fail_the_stream() throws Exception {
+        Numbers source = new Numbers(6, 2);
+        OneAtATime subscriber = new OneAtATime();
+        on(IllegalStateException.class).maxAttempts(3).executePublisher(source).subscribe(subscriber);
+        assertThat(subscriber.finished.await(5, SECONDS), is(true));
+        assertThat(subscriber.failure, instanceOf(IOException.class));
+        assertThat(source.openedFrom.size(), equalTo(1));
+    }
+}
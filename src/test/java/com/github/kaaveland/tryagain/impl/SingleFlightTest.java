@@ -0,0 +1,126 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.CircuitBreaker;
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.RetryListener;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = on(IOException.class).maxAttempts(2).singleFlight();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Retriable<String> blockUntilReleased = new Retriable<String>() {
+        @Override
+        public String execute(final int attempt) throws Exception {
+            attempts.incrementAndGet();
+            release.await(5, SECONDS);
+            if (attempt == 1) {
+                throw new IOException();
+            }
+            return "Result";
+        }
+    };
+
+    @Test
+    public void that_concurrent_calls_with_the_same_key_share_one_execution() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("config", blockUntilReleased)));
+            }
+            while (attempts.get() == 0) {
+                Thread.sleep(1);
+            }
+            // Give the other calls time to join the running execution
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, SECONDS), equalTo("Result"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(attempts.get(), equalTo(2));
+        assertThat(singleFlight.inFlight(), equalTo(0));
+    }
+
+    @Test
+    public void that_calls_after_completion_start_a_new_execution() throws Exception {
+        release.countDown();
+        singleFlight.execute("config", blockUntilReleased);
+        singleFlight.execute("config", blockUntilReleased);
+        assertThat(attempts.get(), equalTo(4));
+    }
+
+    @Test
+    public void that_failures_are_shared_and_the_key_is_forgotten() throws Exception {
+        release.countDown();
+        try {
+            singleFlight.execute("config", new Retriable<String>() {
+                @Override
+                public String execute(final int attempt) throws Exception {
+                    throw new IllegalStateException();
+                }
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {} // Expected
+        assertThat(singleFlight.inFlight(), equalTo(0));
+    }
+
+    @Test
+    public void that_async_calls_with_the_same_key_share_one_execution() throws Exception {
+        CompletableFuture<String> first = singleFlight.executeAsync("config", blockUntilReleased);
+        CompletableFuture<String> second = singleFlight.executeAsync("config", blockUntilReleased);
+        release.countDown();
+        assertThat(first.get(5, SECONDS), equalTo("Result"));
+        assertThat(second.get(5, SECONDS), equalTo("Result"));
+        assertThat(attempts.get(), equalTo(2));
+        assertThat(singleFlight.inFlight(), is(0));
+    }
+
+    @Test
+    public void that_async_calls_that_throw_before_the_first_attempt_are_forgotten() throws Exception {
+        CircuitBreaker open = mock(CircuitBreaker.class);
+        RetryListener throwing = new RetryListener() {
+            @Override
+            public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+                throw new IllegalStateException("Thrown by the listener");
+            }
+        };
+        SingleFlight<String> breaking = on(IOException.class).maxAttempts(2).withCircuitBreaker(open)
+                .withListener(throwing).singleFlight();
+        try {
+            breaking.executeAsync("config", blockUntilReleased).get(5, SECONDS);
+            fail("Expected IllegalStateException");
+        } catch (ExecutionException expected) {
+            assertThat(expected.getCause() instanceof IllegalStateException, is(true));
+        }
+        assertThat(breaking.inFlight(), is(0));
+        when(open.tryAcquirePermission()).thenReturn(true);
+        release.countDown();
+        assertThat(breaking.executeAsync("config", blockUntilReleased).get(5, SECONDS), equalTo("Result"));
+    }
+}
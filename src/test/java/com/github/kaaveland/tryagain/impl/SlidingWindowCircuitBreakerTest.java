@@ -0,0 +1,101 @@
+package com.github.kaaveland.tryagain.impl;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SlidingWindowCircuitBreakerTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final SlidingWindowCircuitBreaker breaker = new SlidingWindowCircuitBreaker(4, 0.5, 100, 2, clock);
+
+    @Test
+    public void that_the_circuit_stays_closed_below_the_failure_rate() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission(), is(true));
+        assertThat(breaker.isOpen(), is(false));
+    }
+
+    @Test
+    public void that_the_circuit_does_not_open_before_the_window_is_full() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void that_the_circuit_opens_at_the_failure_rate_and_rejects_calls() {
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.isOpen(), is(true));
+        assertThat(breaker.tryAcquirePermission(), is(false));
+    }
+
+    @Test
+    public void that_the_circuit_closes_when_trial_attempts_succeed() {
+        openBreaker();
+        clock.advance(100);
+        assertThat(breaker.tryAcquirePermission(), is(true));
+        assertThat(breaker.tryAcquirePermission(), is(true));
+        assertThat(breaker.tryAcquirePermission(), is(false));
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.isOpen(), is(false));
+        assertThat(breaker.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void that_the_circuit_opens_again_when_a_trial_attempt_fails() {
+        openBreaker();
+        clock.advance(100);
+        assertThat(breaker.tryAcquirePermission(), is(true));
+        breaker.onFailure();
+        assertThat(breaker.tryAcquirePermission(), is(false));
+    }
+
+    @Test
+    public void that_the_circuit_opens_again_when_trial_attempts_never_report_back() {
+        SlidingWindowCircuitBreaker timed = new SlidingWindowCircuitBreaker(1, 1.0, 100, 1, clock);
+        timed.onFailure();
+        clock.advance(100);
+        assertThat(timed.tryAcquirePermission(), is(true));
+        // The trial attempt is abandoned without reporting success or failure
+        clock.advance(99);
+        assertThat(timed.tryAcquirePermission(), is(false));
+        clock.advance(1);
+        assertThat(timed.tryAcquirePermission(), is(false));
+        assertThat(timed.isOpen(), is(true));
+        clock.advance(100);
+        assertThat(timed.tryAcquirePermission(), is(true));
+        timed.onSuccess();
+        assertThat(timed.isOpen(), is(false));
+    }
+
+    @Test
+    public void that_unused_trial_permits_can_be_handed_back() {
+        SlidingWindowCircuitBreaker timed = new SlidingWindowCircuitBreaker(1, 1.0, 100, 1, clock);
+        timed.onFailure();
+        clock.advance(100);
+        assertThat(timed.tryAcquirePermission(), is(true));
+        assertThat(timed.tryAcquirePermission(), is(false));
+        timed.releasePermission();
+        assertThat(timed.tryAcquirePermission(), is(true));
+        timed.onSuccess();
+        assertThat(timed.isOpen(), is(false));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.isOpen(), is(true));
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.kaaveland.tryagain.impl;
+
+import com.github.kaaveland.tryagain.api.CircuitBreaker;
+import com.github.kaaveland.tryagain.api.Retriable;
+import com.github.kaaveland.tryagain.api.Retrier;
+import com.github.kaaveland.tryagain.api.RetryListener;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static junit.framework.Assert.fail;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaleCacheTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final Retrier retrier = on(IOException.class).maxAttempts(2).withClock(clock).withScheduler(clock)
+            .executeOn(Runnable::run);
+    private final StaleCache<String, String> cache = retrier.staleCache(2, 1000);
+
+    private static Retriable<String> returning(final String result) {
+        return attempt -> result;
+    }
+
+    private static Retriable<String> throwing(final Exception exception) {
+        return attempt -> {
+            throw exception;
+        };
+    }
+
+    @Test
+    public void that_the_last_result_is_served_when_retries_are_exhausted() throws Exception {
+        assertThat(cache.execute("key", returning("First")), equalTo("First"));
+        assertThat(cache.execute("key", returning("Second")), equalTo("Second"));
+        assertThat(cache.execute("key", throwing(new IOException())), equalTo("Second"));
+    }
+
+    @Test
+    public void that_exceptions_that_are_not_retried_are_thrown() throws Exception {
+        cache.execute("key", returning("First"));
+        try {
+            cache.execute("key", throwing(new IllegalStateException()));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {} // Expected
+    }
+
+    @Test
+    public void that_results_older_than_the_ttl_are_not_served() throws Exception {
+        cache.execute("key", returning("First"));
+        clock.advance(1001);
+        assertThat(cache.get("key"), is(nullValue()));
+        try {
+            cache.execute("key", throwing(new IOException()));
+            fail("Expected IOException");
+        } catch (IOException expected) {} // Expected
+    }
+
+    @Test
+    public void that_the_least_recently_used_key_is_forgotten() throws Exception {
+        cache.execute("a", returning("A"));
+        cache.execute("b", returning("B"));
+        cache.get("a");
+        cache.execute("c", returning("C"));
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.get("a"), equalTo("A"));
+        assertThat(cache.get("b"), is(nullValue()));
+    }
+
+    @Test
+    public void that_old_results_are_served_while_refreshing_in_the_background() throws Exception {
+        StaleCache<String, String> refreshing = new StaleCache<>(retrier, 2, 1000, 0, 500);
+        refreshing.execute("key", returning("First"));
+        clock.advance(500);
+        assertThat(refreshing.execute("key", returning("Second")), equalTo("First"));
+        assertThat(refreshing.execute("key", returning("Third")), equalTo("First"));
+        clock.runAll();
+        assertThat(refreshing.get("key"), equalTo("Second"));
+    }
+
+    @Test
+    public void that_refreshes_that_throw_before_the_first_attempt_are_forgotten() throws Exception {
+        CircuitBreaker open = mock(CircuitBreaker.class);
+        RetryListener throwing = new RetryListener() {
+            @Override
+            public void onGiveUp(final Throwable exception, final int attempt, final long elapsedNanos) {
+                throw new IllegalStateException("Thrown by the listener");
+            }
+        };
+        Retrier breaking = retrier.withCircuitBreaker(open).withListener(throwing);
+        StaleCache<String, String> refreshing = new StaleCache<>(breaking, 2, 1000, 0, 500);
+        when(open.tryAcquirePermission()).thenReturn(true);
+        refreshing.execute("key", returning("First"));
+        clock.advance(500);
+        when(open.tryAcquirePermission()).thenReturn(false);
+        assertThat(refreshing.execute("key", returning("Second")), equalTo("First"));
+        when(open.tryAcquirePermission()).thenReturn(true);
+        assertThat(refreshing.execute("key", returning("Third")), equalTo("First"));
+        clock.runAll();
+        assertThat(refreshing.get("key"), equalTo("Third"));
+    }
+
+    @Test
+    public void that_the_result_is_served_when_the_latency_budget_is_exceeded() throws Exception {
+        StaleCache<String, String> budgeted = new StaleCache<>(on(IOException.class), 2, 60000, 50, 0);
+        final CountDownLatch release = new CountDownLatch(1);
+        budgeted.execute("key", returning("First"));
+        assertThat(budgeted.execute("key", attempt -> {
+            release.await(5, SECONDS);
+            return "Second";
+        }), equalTo("First"));
+        release.countDown();
+        while (!"Second".equals(budgeted.get("key"))) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.kaaveland.tryagain.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class VirtualClockTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final List<String> ran = new ArrayList<>();
+
+    private Runnable record(final String name) {
+        return () -> ran.add(name + "@" + clock.currentMillis());
+    }
+
+    @Test
+    public void that_sleeping_moves_time_without_blocking() {
+        long before = System.nanoTime();
+        clock.sleep(3600000);
+        assertThat(clock.currentMillis(), equalTo(3600000L));
+        assertThat(System.nanoTime() - before < 1000000000L, equalTo(true));
+    }
+
+    @Test
+    public void that_tasks_run_in_order_when_time_passes_them() {
+        clock.schedule(record("b"), 20);
+        clock.schedule(record("a"), 10);
+        clock.schedule(record("c"), 20);
+        clock.advance(5);
+        assertThat(ran, empty());
+        clock.advance(20);
+        assertThat(ran, contains("a@10", "b@20", "c@20"));
+        assertThat(clock.currentMillis(), equalTo(25L));
+    }
+
+    @Test
+    public void that_run_all_runs_tasks_scheduled_by_tasks() {
+        clock.schedule(() -> {
+            ran.add("first@" + clock.currentMillis());
+            clock.schedule(record("second"), 100);
+        }, 50);
+        clock.runAll();
+        assertThat(ran, contains("first@50", "second@150"));
+        assertThat(clock.pending(), equalTo(0));
+    }
+}
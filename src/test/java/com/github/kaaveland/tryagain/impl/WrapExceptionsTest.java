@@ -1,5 +1,6 @@
 package com.github.kaaveland.tryagain.impl;
 
+import com.github.kaaveland.tryagain.api.RetriesExhaustedException;
 import com.github.kaaveland.tryagain.api.Retriable;
 import com.github.kaaveland.tryagain.api.RetriableWithoutResult;
 import com.github.kaaveland.tryagain.api.Retrier;
@@ -9,8 +10,12 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static com.github.kaaveland.tryagain.api.TryAgain.on;
+import static junit.framework.Assert.fail;
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 
 public class WrapExceptionsTest {
 
@@ -45,4 +50,27 @@ public class WrapExceptionsTest {
             assertThat(exception.getCause(), instanceOf(IllegalArgumentException.class));
         }
     }
+
+    @Test
+    public void that_wrapped_exceptions_can_skip_the_stack_trace() {
+        WrapExceptions withoutStackTraces = retrier.wrapExceptions().withoutStackTraces();
+        try {
+            withoutStackTraces.execute(throwIOException);
+            fail("Expected WrappedException");
+        } catch (WrappedException exception) {
+            assertThat(exception.getStackTrace().length, is(0));
+            assertThat(exception.getCause().getStackTrace().length, is(greaterThan(0)));
+        }
+        assertThat(retrier.wrapExceptions().withoutStackTraces(), is(sameInstance(withoutStackTraces)));
+    }
+
+    @Test
+    public void that_retries_exhausted_is_not_wrapped_again() {
+        try {
+            new WrapExceptions(on(IOException.class).maxAttempts(2).throwRetriesExhausted()).execute(throwIOException);
+            fail("Expected RetriesExhaustedException");
+        } catch (RetriesExhaustedException exception) {
+            assertThat(exception.getCause(), instanceOf(IOException.class));
+        }
+    }
 }